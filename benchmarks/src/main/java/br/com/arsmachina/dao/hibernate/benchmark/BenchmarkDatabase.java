@@ -0,0 +1,131 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AnnotationConfiguration;
+import org.hibernate.classic.Session;
+import org.hibernate.context.ManagedSessionContext;
+
+import br.com.arsmachina.dao.hibernate.ConcreteDAOImpl;
+import br.com.arsmachina.dao.hibernate.dialect.BulkHSQLDialect;
+
+/**
+ * Creates the in-memory HSQLDB databases used by the benchmarks. The configuration is the same
+ * as the one in <code>src/test/resources/hibernate.cfg.xml</code>, except that each database
+ * has its own name, SQL logging is off and JDBC batching and statement ordering are on.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+final class BenchmarkDatabase {
+
+	/**
+	 * Number of elements in the collection of each seeded object.
+	 */
+	final static int ELEMENTS = 3;
+
+	private BenchmarkDatabase() {
+	}
+
+	/**
+	 * Creates a {@link SessionFactory} for a new, empty database.
+	 * 
+	 * @return a {@link SessionFactory}.
+	 */
+	static SessionFactory createSessionFactory() {
+
+		AnnotationConfiguration configuration = new AnnotationConfiguration();
+		configuration.setProperty("hibernate.connection.driver_class", "org.hsqldb.jdbcDriver");
+		configuration.setProperty("hibernate.connection.url", "jdbc:hsqldb:mem:benchmark"
+				+ System.nanoTime());
+		configuration.setProperty("hibernate.connection.username", "sa");
+		configuration.setProperty("hibernate.connection.password", "");
+		configuration.setProperty("hibernate.dialect", BulkHSQLDialect.class.getName());
+		configuration.setProperty("hibernate.hbm2ddl.auto", "create");
+		configuration.setProperty("hibernate.show_sql", "false");
+		configuration.setProperty("hibernate.jdbc.batch_size", "50");
+		configuration.setProperty("hibernate.order_inserts", "true");
+		configuration.setProperty("hibernate.order_updates", "true");
+		configuration.setProperty("hibernate.current_session_context_class", "managed");
+		configuration.addAnnotatedClass(BenchmarkEntity.class);
+
+		return configuration.buildSessionFactory();
+
+	}
+
+	/**
+	 * Creates an object with predictable property values.
+	 * 
+	 * @param index an <code>int</code>.
+	 * @return a {@link BenchmarkEntity}.
+	 */
+	static BenchmarkEntity createObject(int index) {
+
+		BenchmarkEntity object = new BenchmarkEntity();
+		object.setString("value" + index);
+		object.setNumber(index);
+
+		for (int i = 0; i < ELEMENTS; i++) {
+			object.getElements().add(index + i);
+		}
+
+		return object;
+
+	}
+
+	/**
+	 * Inserts <code>rows</code> objects in the database and returns their ids.
+	 * 
+	 * @param sessionFactory a {@link SessionFactory}.
+	 * @param rows an <code>int</code>.
+	 * @return an {@link Integer} array.
+	 */
+	static Integer[] seed(SessionFactory sessionFactory, int rows) {
+
+		final ConcreteDAOImpl<BenchmarkEntity, Integer> dao =
+			new ConcreteDAOImpl<BenchmarkEntity, Integer>(BenchmarkEntity.class, sessionFactory);
+		final List<BenchmarkEntity> objects = new ArrayList<BenchmarkEntity>(rows);
+
+		for (int i = 0; i < rows; i++) {
+			objects.add(createObject(i));
+		}
+
+		final Session session = sessionFactory.openSession();
+		ManagedSessionContext.bind(session);
+
+		try {
+			session.beginTransaction();
+			dao.saveAll(objects);
+			session.getTransaction().commit();
+		}
+		finally {
+			ManagedSessionContext.unbind(sessionFactory);
+			session.close();
+		}
+
+		final Integer[] ids = new Integer[rows];
+
+		for (int i = 0; i < rows; i++) {
+			ids[i] = objects.get(i).getId();
+		}
+
+		return ids;
+
+	}
+
+}
@@ -0,0 +1,180 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.classic.Session;
+import org.hibernate.context.ManagedSessionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.arsmachina.dao.hibernate.ConcreteDAOImpl;
+
+/**
+ * Benchmarks the write operations of {@link ConcreteDAOImpl}, which delegate to
+ * <code>WriteableDAOImpl</code>, at several data sizes. Each invocation runs in its own
+ * transaction and clears the session afterwards.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class WriteBenchmark {
+
+	/**
+	 * Number of objects written by the batch operations.
+	 */
+	final static int BATCH = 100;
+
+	@Param( { "1000", "10000", "100000" })
+	public int rows;
+
+	private SessionFactory sessionFactory;
+
+	private Session session;
+
+	private ConcreteDAOImpl<BenchmarkEntity, Integer> dao;
+
+	private Integer[] ids;
+
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+
+		sessionFactory = BenchmarkDatabase.createSessionFactory();
+		ids = BenchmarkDatabase.seed(sessionFactory, rows);
+		dao = new ConcreteDAOImpl<BenchmarkEntity, Integer>(BenchmarkEntity.class, sessionFactory);
+		random = new Random(42);
+
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		session = sessionFactory.openSession();
+		ManagedSessionContext.bind(session);
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		ManagedSessionContext.unbind(sessionFactory);
+		session.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		sessionFactory.close();
+	}
+
+	@Benchmark
+	public BenchmarkEntity save() {
+
+		final BenchmarkEntity object = BenchmarkDatabase.createObject(random.nextInt());
+
+		session.beginTransaction();
+		dao.save(object);
+		session.getTransaction().commit();
+		session.clear();
+
+		return object;
+
+	}
+
+	@Benchmark
+	public BenchmarkEntity update() {
+
+		final BenchmarkEntity object = BenchmarkDatabase.createObject(random.nextInt());
+		object.setId(ids[random.nextInt(ids.length)]);
+
+		session.beginTransaction();
+		dao.update(object);
+		session.getTransaction().commit();
+		session.clear();
+
+		return object;
+
+	}
+
+	@Benchmark
+	public BenchmarkEntity saveAndDelete() {
+
+		final BenchmarkEntity object = BenchmarkDatabase.createObject(random.nextInt());
+
+		session.beginTransaction();
+		dao.save(object);
+		dao.delete(object);
+		session.getTransaction().commit();
+		session.clear();
+
+		return object;
+
+	}
+
+	@Benchmark
+	public BenchmarkEntity saveAndDeleteById() {
+
+		final BenchmarkEntity object = BenchmarkDatabase.createObject(random.nextInt());
+
+		session.beginTransaction();
+		dao.save(object);
+		session.flush();
+		dao.delete(object.getId());
+		session.getTransaction().commit();
+		session.clear();
+
+		return object;
+
+	}
+
+	@Benchmark
+	public int[] saveAll() {
+
+		final List<BenchmarkEntity> objects = new ArrayList<BenchmarkEntity>(BATCH);
+
+		for (int i = 0; i < BATCH; i++) {
+			objects.add(BenchmarkDatabase.createObject(random.nextInt()));
+		}
+
+		session.beginTransaction();
+		final int[] counts = dao.saveAll(objects);
+		session.getTransaction().commit();
+
+		return counts;
+
+	}
+
+}
@@ -0,0 +1,64 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import br.com.arsmachina.dao.hibernate.dialect.ApproximateRowCountDialect;
+
+/**
+ * {@link CountStrategy} that returns the approximate number of rows kept by the database in its
+ * statistics, which is much cheaper than an exact count in databases like PostgreSQL. The
+ * configured {@link Dialect} must implement {@link ApproximateRowCountDialect}. Otherwise, or when
+ * the database has no statistics for the table yet, the exact number is returned.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class ApproximateCountStrategy implements CountStrategy {
+
+	public int countAll(ReadableDAOImpl<?, ?> dao) {
+
+		final Dialect dialect = ((SessionFactoryImplementor) dao.getSessionFactory()).getDialect();
+
+		if (dialect instanceof ApproximateRowCountDialect
+				&& dao.getClassMetadata() instanceof AbstractEntityPersister) {
+
+			final String tableName =
+				((AbstractEntityPersister) dao.getClassMetadata()).getTableName();
+			final String sql =
+				((ApproximateRowCountDialect) dialect).getApproximateRowCountString(tableName);
+			final Number count = (Number) dao.getSession().createSQLQuery(sql).uniqueResult();
+
+			if (count != null && count.doubleValue() >= 0) {
+				return count.intValue();
+			}
+
+		}
+
+		return dao.countAllExactly();
+
+	}
+
+	/**
+	 * Does nothing, as the database statistics are updated by the database itself.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.CountStrategy#countChanged(int)
+	 */
+	public void countChanged(int delta) {
+	}
+
+}
@@ -0,0 +1,436 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.classic.Session;
+import org.hibernate.context.ManagedSessionContext;
+
+import br.com.arsmachina.dao.DAO;
+import br.com.arsmachina.dao.SortCriterion;
+
+/**
+ * Asynchronous facade for a {@link DAO}. Each method submits the corresponding DAO call to an
+ * {@link ExecutorService} and returns a {@link Future}, so independent calls run concurrently
+ * instead of one after the other. Each call runs in its own {@link Session} and transaction,
+ * which are bound to the executing thread using {@link ManagedSessionContext}, so the
+ * <code>hibernate.current_session_context_class</code> property of the {@link SessionFactory}
+ * must be <code>managed</code>. Subclasses can override {@link #execute(Callable)} to use other
+ * session contexts. As the session is closed after each call, the returned objects are
+ * detached.
+ * <p>
+ * The number of calls running at the same time is limited by
+ * <code>maximumConcurrency</code>, which should not be greater than the size of the connection
+ * pool. If no executor is given, virtual threads are used when the JVM supports them and a
+ * fixed pool of <code>maximumConcurrency</code> daemon threads is used otherwise.
+ * </p>
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the entity class related to this DAO.
+ * @param <K> the type of the field that represents the entity class' primary key.
+ */
+public class AsyncDAO<T, K extends Serializable> {
+
+	final private DAO<T, K> dao;
+
+	final private SessionFactory sessionFactory;
+
+	final private ExecutorService executor;
+
+	final private boolean ownExecutor;
+
+	final private Semaphore permits;
+
+	/**
+	 * Constructor that creates the default executor.
+	 * 
+	 * @param dao a {@link DAO}. It cannot be null.
+	 * @param sessionFactory the {@link SessionFactory} used by <code>dao</code>. It cannot be
+	 * null.
+	 * @param maximumConcurrency the maximum number of calls running at the same time. It must be
+	 * greater than zero.
+	 */
+	public AsyncDAO(DAO<T, K> dao, SessionFactory sessionFactory, int maximumConcurrency) {
+		this(dao, sessionFactory, null, maximumConcurrency);
+	}
+
+	/**
+	 * Constructor that takes an executor. The executor is not shut down by {@link #shutdown()}.
+	 * 
+	 * @param dao a {@link DAO}. It cannot be null.
+	 * @param sessionFactory the {@link SessionFactory} used by <code>dao</code>. It cannot be
+	 * null.
+	 * @param executor an {@link ExecutorService}. If it is null, the default one is created.
+	 * @param maximumConcurrency the maximum number of calls running at the same time. It must be
+	 * greater than zero.
+	 */
+	public AsyncDAO(DAO<T, K> dao, SessionFactory sessionFactory, ExecutorService executor,
+			int maximumConcurrency) {
+
+		if (dao == null) {
+			throw new IllegalArgumentException("Parameter dao cannot be null");
+		}
+
+		if (sessionFactory == null) {
+			throw new IllegalArgumentException("Parameter sessionFactory cannot be null");
+		}
+
+		if (maximumConcurrency <= 0) {
+			throw new IllegalArgumentException(
+					"Parameter maximumConcurrency must be greater than zero");
+		}
+
+		this.dao = dao;
+		this.sessionFactory = sessionFactory;
+		this.ownExecutor = executor == null;
+		this.executor = executor != null ? executor : createExecutor(maximumConcurrency);
+		this.permits = new Semaphore(maximumConcurrency, true);
+
+	}
+
+	/**
+	 * Creates the default executor: one virtual thread per task if the JVM supports them or a
+	 * fixed pool of daemon threads otherwise.
+	 * 
+	 * @param maximumConcurrency an <code>int</code>.
+	 * @return an {@link ExecutorService}.
+	 */
+	protected ExecutorService createExecutor(int maximumConcurrency) {
+
+		try {
+
+			// Executors.newVirtualThreadPerTaskExecutor() only exists in Java 21 and later.
+			final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+
+		}
+		catch (Exception e) {
+			return Executors.newFixedThreadPool(maximumConcurrency, new DaemonThreadFactory());
+		}
+
+	}
+
+	/**
+	 * Submits a task that uses the DAO. The task runs in its own session and transaction.
+	 * 
+	 * @param <V> the type of the task result.
+	 * @param task a {@link Callable}. It cannot be null.
+	 * @return a {@link Future}.
+	 */
+	public <V> Future<V> submit(final Callable<V> task) {
+
+		if (task == null) {
+			throw new IllegalArgumentException("Parameter task cannot be null");
+		}
+
+		return executor.submit(new Callable<V>() {
+
+			public V call() throws Exception {
+				return execute(task);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Runs a task in the current thread, in a new session and transaction, after acquiring one
+	 * of the <code>maximumConcurrency</code> permits. The transaction is committed if the task
+	 * succeeds and rolled back otherwise.
+	 * 
+	 * @param <V> the type of the task result.
+	 * @param task a {@link Callable}.
+	 * @return the task result.
+	 * @throws Exception if the task throws it.
+	 */
+	protected <V> V execute(Callable<V> task) throws Exception {
+
+		permits.acquire();
+
+		try {
+
+			final Session session = sessionFactory.openSession();
+			ManagedSessionContext.bind(session);
+
+			try {
+
+				final Transaction transaction = session.beginTransaction();
+
+				try {
+
+					final V result = task.call();
+					transaction.commit();
+
+					return result;
+
+				}
+				finally {
+
+					if (transaction.isActive()) {
+						transaction.rollback();
+					}
+
+				}
+
+			}
+			finally {
+				ManagedSessionContext.unbind(sessionFactory);
+				session.close();
+			}
+
+		}
+		finally {
+			permits.release();
+		}
+
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this object.
+	 */
+	public void shutdown() {
+
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+
+	}
+
+	/**
+	 * Invokes <code>dao.countAll()</code> asynchronously.
+	 * 
+	 * @return a {@link Future} of {@link Integer}.
+	 * @see br.com.arsmachina.dao.ReadableDAO#countAll()
+	 */
+	public Future<Integer> countAll() {
+
+		return submit(new Callable<Integer>() {
+
+			public Integer call() {
+				return dao.countAll();
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.findAll()</code> asynchronously.
+	 * 
+	 * @return a {@link Future} of {@link List}.
+	 * @see br.com.arsmachina.dao.ReadableDAO#findAll()
+	 */
+	public Future<List<T>> findAll() {
+
+		return submit(new Callable<List<T>>() {
+
+			public List<T> call() {
+				return dao.findAll();
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.findAll(firstResult, maximumResults, sortCriteria)</code>
+	 * asynchronously.
+	 * 
+	 * @param firstResult an <code>int</code>.
+	 * @param maximumResults an <code>int</code>.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link Future} of {@link List}.
+	 * @see br.com.arsmachina.dao.ReadableDAO#findAll(int, int, SortCriterion[])
+	 */
+	public Future<List<T>> findAll(final int firstResult, final int maximumResults,
+			final SortCriterion... sortCriteria) {
+
+		return submit(new Callable<List<T>>() {
+
+			public List<T> call() {
+				return dao.findAll(firstResult, maximumResults, sortCriteria);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.findById(id)</code> asynchronously.
+	 * 
+	 * @param id a <code>K</code>.
+	 * @return a {@link Future} of <code>T</code>.
+	 * @see br.com.arsmachina.dao.ReadableDAO#findById(Serializable)
+	 */
+	public Future<T> findById(final K id) {
+
+		return submit(new Callable<T>() {
+
+			public T call() {
+				return dao.findById(id);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.findByIds(ids)</code> asynchronously.
+	 * 
+	 * @param ids a <code>K...</code>.
+	 * @return a {@link Future} of {@link List}.
+	 * @see br.com.arsmachina.dao.ReadableDAO#findByIds(K[])
+	 */
+	public Future<List<T>> findByIds(final K... ids) {
+
+		return submit(new Callable<List<T>>() {
+
+			public List<T> call() {
+				return dao.findByIds(ids);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.findByExample(example)</code> asynchronously.
+	 * 
+	 * @param example a <code>T</code>.
+	 * @return a {@link Future} of {@link List}.
+	 * @see br.com.arsmachina.dao.ReadableDAO#findByExample(Object)
+	 */
+	public Future<List<T>> findByExample(final T example) {
+
+		return submit(new Callable<List<T>>() {
+
+			public List<T> call() {
+				return dao.findByExample(example);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.save(object)</code> asynchronously.
+	 * 
+	 * @param object a <code>T</code>.
+	 * @return a {@link Future} of <code>object</code>.
+	 * @see br.com.arsmachina.dao.WriteableDAO#save(Object)
+	 */
+	public Future<T> save(final T object) {
+
+		return submit(new Callable<T>() {
+
+			public T call() {
+				dao.save(object);
+				return object;
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.update(object)</code> asynchronously.
+	 * 
+	 * @param object a <code>T</code>.
+	 * @return a {@link Future} of <code>T</code>.
+	 * @see br.com.arsmachina.dao.WriteableDAO#update(Object)
+	 */
+	public Future<T> update(final T object) {
+
+		return submit(new Callable<T>() {
+
+			public T call() {
+				return dao.update(object);
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.delete(object)</code> asynchronously.
+	 * 
+	 * @param object a <code>T</code>.
+	 * @return a {@link Future} completed when the object is deleted.
+	 * @see br.com.arsmachina.dao.WriteableDAO#delete(Object)
+	 */
+	public Future<Void> delete(final T object) {
+
+		return submit(new Callable<Void>() {
+
+			public Void call() {
+				dao.delete(object);
+				return null;
+			}
+
+		});
+
+	}
+
+	/**
+	 * Invokes <code>dao.delete(id)</code> asynchronously.
+	 * 
+	 * @param id a <code>K</code>.
+	 * @return a {@link Future} completed when the object is deleted.
+	 * @see br.com.arsmachina.dao.WriteableDAO#delete(Serializable)
+	 */
+	public Future<Void> delete(final K id) {
+
+		return submit(new Callable<Void>() {
+
+			public Void call() {
+				dao.delete(id);
+				return null;
+			}
+
+		});
+
+	}
+
+	/**
+	 * Creates daemon threads for the default executor.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		final private AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+
+			final Thread thread = new Thread(runnable, "AsyncDAO-" + count.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+
+		}
+
+	}
+
+}
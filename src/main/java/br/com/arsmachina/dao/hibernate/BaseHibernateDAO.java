@@ -17,10 +17,27 @@ package br.com.arsmachina.dao.hibernate;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
+import javax.transaction.Synchronization;
+
+import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
 import org.hibernate.classic.Session;
+import org.hibernate.criterion.Example;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
 
 /**
  * Superclass of both {@link ReadableDAOImpl} and {@link WriteableDAOImpl}.
@@ -31,6 +48,11 @@ import org.hibernate.metadata.ClassMetadata;
  */
 public class BaseHibernateDAO<T, K extends Serializable> {
 
+	/**
+	 * Default maximum number of values in a single SQL <code>in</code> list.
+	 */
+	final public static int DEFAULT_MAXIMUM_IN_LIST_SIZE = 512;
+
 	private final SessionFactory sessionFactory;
 
 	private final Class<T> entityClass;
@@ -39,6 +61,16 @@ public class BaseHibernateDAO<T, K extends Serializable> {
 
 	private final String primaryKeyPropertyName;
 
+	private int maximumInListSize = DEFAULT_MAXIMUM_IN_LIST_SIZE;
+
+	private QueryCacheSettings queryCacheSettings;
+
+	private EntityCache entityCache;
+
+	private CountStrategy countStrategy;
+
+	private volatile DAOMonitor monitor;
+
 	/**
 	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
 	 * 
@@ -138,4 +170,425 @@ public class BaseHibernateDAO<T, K extends Serializable> {
 		return primaryKeyPropertyName;
 	}
 
+	/**
+	 * Returns the primary key value of a given object. It is obtained via
+	 * {@link ClassMetadata#getIdentifier(Object, EntityMode)}.
+	 * 
+	 * @param object a <code>T</code>. It cannot be null.
+	 * @return a <code>K</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	protected K getIdentifier(T object) {
+		return (K) getClassMetadata().getIdentifier(object, EntityMode.POJO);
+	}
+
+	/**
+	 * Returns the value of a given property of a given object. It is obtained via
+	 * {@link ClassMetadata#getPropertyValue(Object, String, EntityMode)}, so the primary key
+	 * property is handled too.
+	 * 
+	 * @param object a <code>T</code>. It cannot be null.
+	 * @param property a {@link String} containing a property name.
+	 * @return an {@link Object}.
+	 */
+	protected Object getPropertyValue(T object, String property) {
+
+		if (property.equals(getPrimaryKeyPropertyName())) {
+			return getIdentifier(object);
+		}
+
+		return getClassMetadata().getPropertyValue(object, property, EntityMode.POJO);
+
+	}
+
+	/**
+	 * Returns the object with a given primary key value if it is already in the persistence
+	 * context of the current session and it was not deleted. Otherwise, it returns
+	 * <code>null</code>. No database access is done.
+	 * 
+	 * @param id a <code>K</code>. It cannot be null.
+	 * @return a <code>T</code> or <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	protected T findInSession(K id) {
+
+		if (getClassMetadata() instanceof EntityPersister == false) {
+			return null;
+		}
+
+		final EntityPersister persister = (EntityPersister) getClassMetadata();
+		final SessionImplementor session = (SessionImplementor) getSession();
+		final EntityKey key = new EntityKey(id, persister, EntityMode.POJO);
+		final Object object = session.getPersistenceContext().getEntity(key);
+
+		if (object != null) {
+
+			final EntityEntry entry = session.getPersistenceContext().getEntry(object);
+
+			if (entry == null || entry.getStatus() == Status.DELETED
+					|| entry.getStatus() == Status.GONE) {
+				return null;
+			}
+
+		}
+
+		return (T) object;
+
+	}
+
+	/**
+	 * Splits a collection of primary key values into arrays to be used in SQL <code>in</code>
+	 * lists. Each array has at most {@link #getMaximumInListSize()} elements and its length is
+	 * rounded up to a power of two by repeating its last element, so the number of distinct SQL
+	 * statements stays small and they can be reused by the database and the JDBC driver
+	 * statement caches.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @return a {@link List} of {@link Object} arrays.
+	 */
+	protected final List<Object[]> partitionIds(Collection<K> ids) {
+
+		final List<Object[]> chunks = new ArrayList<Object[]>();
+		final Iterator<K> iterator = ids.iterator();
+		int remaining = ids.size();
+
+		while (remaining > 0) {
+
+			final int size = Math.min(remaining, maximumInListSize);
+			int length = Integer.highestOneBit(size);
+
+			if (length < size) {
+				length = Math.min(length << 1, maximumInListSize);
+			}
+
+			final Object[] chunk = new Object[length];
+
+			for (int i = 0; i < size; i++) {
+				chunk[i] = iterator.next();
+			}
+
+			for (int i = size; i < length; i++) {
+				chunk[i] = chunk[size - 1];
+			}
+
+			chunks.add(chunk);
+			remaining -= size;
+
+		}
+
+		return chunks;
+
+	}
+
+	/**
+	 * Returns the value of the <code>maximumInListSize</code> property.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getMaximumInListSize() {
+		return maximumInListSize;
+	}
+
+	/**
+	 * Changes the value of the <code>maximumInListSize</code> property. It should be a power of
+	 * two and must not be greater than the limit imposed by the database.
+	 * 
+	 * @param maximumInListSize an <code>int</code>. It must be greater than zero.
+	 */
+	public void setMaximumInListSize(int maximumInListSize) {
+
+		if (maximumInListSize <= 0) {
+			throw new IllegalArgumentException(
+					"Parameter maximumInListSize must be greater than zero");
+		}
+
+		this.maximumInListSize = maximumInListSize;
+
+	}
+
+	/**
+	 * Makes a {@link Criteria} cacheable according to {@link #getQueryCacheSettings()}. If no
+	 * settings were given, nothing is done.
+	 * 
+	 * @param criteria a {@link Criteria}. It cannot be null.
+	 * @param operation the {@link DAOOperation} that will execute the criteria.
+	 */
+	protected void applyQueryCache(Criteria criteria, DAOOperation operation) {
+
+		if (queryCacheSettings != null) {
+			queryCacheSettings.apply(criteria, operation, getSessionFactory());
+		}
+
+	}
+
+	/**
+	 * Evicts the cached queries of the region defined by {@link #getQueryCacheSettings()}. If no
+	 * settings were given, nothing is done.
+	 */
+	protected void evictQueryCache() {
+
+		if (queryCacheSettings != null) {
+			queryCacheSettings.evict(getSessionFactory());
+		}
+
+	}
+
+	/**
+	 * Returns the value of the <code>queryCacheSettings</code> property.
+	 * 
+	 * @return a {@link QueryCacheSettings} or <code>null</code>.
+	 */
+	public QueryCacheSettings getQueryCacheSettings() {
+		return queryCacheSettings;
+	}
+
+	/**
+	 * Changes the value of the <code>queryCacheSettings</code> property.
+	 * 
+	 * @param queryCacheSettings a {@link QueryCacheSettings} or <code>null</code> to disable
+	 * query caching.
+	 */
+	public void setQueryCacheSettings(QueryCacheSettings queryCacheSettings) {
+		this.queryCacheSettings = queryCacheSettings;
+	}
+
+	/**
+	 * Used by {@link ReadableDAOImpl#findByExample(Object)} and
+	 * {@link WriteableDAOImpl#updateByExample(Object, java.util.Map, boolean)} to create an
+	 * {@link Example} instance.
+	 * 
+	 * @todo add criteria for property types not handled by Example (primary keys, associations,
+	 * etc)
+	 * @return an {@link Example}.
+	 */
+	public Example createExample(T entity) {
+
+		Example example = Example.create(entity);
+		example.enableLike(MatchMode.ANYWHERE);
+		example.excludeZeroes();
+		example.ignoreCase();
+
+		return example;
+
+	}
+
+	/**
+	 * Removes the object with a given primary key value from {@link #getEntityCache()}. If no
+	 * entity cache was given, nothing is done.
+	 * 
+	 * @param id a <code>K</code>. It can be null.
+	 * @see #invalidateCachedEntities(Collection, Transaction)
+	 */
+	protected void invalidateCachedEntity(K id) {
+
+		if (entityCache != null && id != null) {
+			invalidateCachedEntities(Collections.singletonList(id));
+		}
+
+	}
+
+	/**
+	 * Removes the objects with the given primary key values from {@link #getEntityCache()},
+	 * now and after the transaction of the current session completes. If no entity cache was
+	 * given, nothing is done.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @see #invalidateCachedEntities(Collection, Transaction)
+	 */
+	protected void invalidateCachedEntities(Collection<? extends K> ids) {
+
+		if (entityCache != null) {
+			invalidateCachedEntities(ids, getSession().getTransaction());
+		}
+
+	}
+
+	/**
+	 * Removes a given object from {@link #getEntityCache()}. If no entity cache was given,
+	 * nothing is done and the object primary key value is not even read.
+	 * 
+	 * @param object a <code>T</code>.
+	 * @see #invalidateCachedEntity(Serializable)
+	 */
+	protected void invalidateCachedObject(T object) {
+
+		if (entityCache != null && object != null) {
+			invalidateCachedEntity(getIdentifier(object));
+		}
+
+	}
+
+	/**
+	 * Removes the objects with the given primary key values from {@link #getEntityCache()}. If
+	 * no entity cache was given, nothing is done. If <code>transaction</code> is active, the
+	 * objects are removed again after it completes, so states read by concurrent transactions
+	 * before the commit and cached after the invalidation do not survive it.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @param transaction the {@link Transaction} that writes the objects or <code>null</code>.
+	 */
+	protected void invalidateCachedEntities(Collection<? extends K> ids, Transaction transaction) {
+
+		final EntityCache entityCache = this.entityCache;
+
+		if (entityCache == null || ids.isEmpty()) {
+			return;
+		}
+
+		final String entityName = getClassMetadata().getEntityName();
+		final List<K> invalidated = new ArrayList<K>(ids.size());
+
+		for (K id : ids) {
+
+			if (id != null) {
+				entityCache.invalidate(entityName, id);
+				invalidated.add(id);
+			}
+
+		}
+
+		if (transaction != null && transaction.isActive() && invalidated.isEmpty() == false) {
+
+			transaction.registerSynchronization(new Synchronization() {
+
+				public void beforeCompletion() {
+				}
+
+				public void afterCompletion(int status) {
+
+					for (K id : invalidated) {
+						entityCache.invalidate(entityName, id);
+					}
+
+				}
+
+			});
+
+		}
+
+	}
+
+	/**
+	 * Returns the value of the <code>entityCache</code> property.
+	 * 
+	 * @return an {@link EntityCache} or <code>null</code>.
+	 */
+	public EntityCache getEntityCache() {
+		return entityCache;
+	}
+
+	/**
+	 * Changes the value of the <code>entityCache</code> property.
+	 * 
+	 * @param entityCache an {@link EntityCache} or <code>null</code> to disable entity caching.
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+
+	/**
+	 * Notifies {@link #getCountStrategy()} that objects were inserted or deleted. If no count
+	 * strategy was given, nothing is done.
+	 * 
+	 * @param delta the number of inserted objects or minus the number of deleted ones.
+	 */
+	protected void countChanged(int delta) {
+
+		if (countStrategy != null && delta != 0) {
+			countStrategy.countChanged(delta);
+		}
+
+	}
+
+	/**
+	 * Returns the value of the <code>countStrategy</code> property.
+	 * 
+	 * @return a {@link CountStrategy} or <code>null</code>.
+	 */
+	public CountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * Changes the value of the <code>countStrategy</code> property.
+	 * 
+	 * @param countStrategy a {@link CountStrategy} or <code>null</code> to use exact counts.
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * Notifies {@link #getMonitor()} that an operation is starting and returns the current value
+	 * of {@link System#nanoTime()}. Every invocation must be followed by an invocation of
+	 * {@link #operationFinished(DAOOperation, long, int, Throwable, Object, Object...)}, usually
+	 * in a <code>finally</code> block.
+	 * 
+	 * @param operation a {@link DAOOperation}.
+	 * @return a <code>long</code>.
+	 */
+	protected final long operationStarted(DAOOperation operation) {
+
+		final DAOMonitor monitor = this.monitor;
+
+		if (monitor != null) {
+			monitor.operationStarted(getClassMetadata(), operation);
+		}
+
+		return System.nanoTime();
+
+	}
+
+	/**
+	 * Notifies {@link #getMonitor()} that an operation finished. If no monitor was given,
+	 * nothing is done.
+	 * 
+	 * @param operation a {@link DAOOperation}.
+	 * @param start the value returned by {@link #operationStarted(DAOOperation)}.
+	 * @param rows the number of objects returned or written by the operation.
+	 * @param failure the exception thrown by the operation or <code>null</code>.
+	 * @param query the {@link Criteria} or HQL query executed by the operation or
+	 * <code>null</code>.
+	 * @param arguments the operation arguments.
+	 */
+	protected final void operationFinished(DAOOperation operation, long start, int rows,
+			Throwable failure, Object query, Object... arguments) {
+
+		final DAOMonitor monitor = this.monitor;
+
+		if (monitor != null) {
+			monitor.operationFinished(getClassMetadata(), operation, System.nanoTime() - start,
+					rows, failure, query, arguments);
+		}
+
+	}
+
+	/**
+	 * Returns the size of a collection or zero if it is <code>null</code>.
+	 * 
+	 * @param collection a {@link Collection}.
+	 * @return an <code>int</code>.
+	 */
+	protected static int size(Collection<?> collection) {
+		return collection != null ? collection.size() : 0;
+	}
+
+	/**
+	 * Returns the value of the <code>monitor</code> property.
+	 * 
+	 * @return a {@link DAOMonitor} or <code>null</code>.
+	 */
+	public DAOMonitor getMonitor() {
+		return monitor;
+	}
+
+	/**
+	 * Changes the value of the <code>monitor</code> property.
+	 * 
+	 * @param monitor a {@link DAOMonitor} or <code>null</code> to disable monitoring.
+	 */
+	public void setMonitor(DAOMonitor monitor) {
+		this.monitor = monitor;
+	}
+
 }
@@ -0,0 +1,236 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.hibernate.Query;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+
+import br.com.arsmachina.dao.hibernate.dialect.IdentityReservingDialect;
+import br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect;
+import br.com.arsmachina.dao.hibernate.dialect.ReturningDialect;
+
+/**
+ * Writes objects of a given entity class through a {@link StatelessSession}, so no persistence
+ * context, dirty checking or first-level cache is involved. Objects are written to the database
+ * immediately and no cascading is done. It is meant to be used for high-volume writes and it is
+ * obtained through {@link WriteableDAOImpl#openBulkWriter()}. Instances of this class are not
+ * thread-safe and must be closed after use.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the entity class related to this writer.
+ * @param <K> the type of the field that represents the entity class' primary key.
+ */
+public class BulkWriter<T, K extends Serializable> {
+
+	final private WriteableDAOImpl<T, K> dao;
+
+	final private StatelessSession session;
+
+	final private String entityName;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param dao the {@link WriteableDAOImpl} that created this writer. It cannot be null.
+	 * @param session a {@link StatelessSession}. It cannot be null.
+	 */
+	BulkWriter(WriteableDAOImpl<T, K> dao, StatelessSession session) {
+
+		assert dao != null;
+		assert session != null;
+
+		this.dao = dao;
+		this.session = session;
+		entityName = dao.getClassMetadata().getEntityName();
+
+	}
+
+	/**
+	 * Begins a transaction in the underlying {@link StatelessSession}.
+	 * 
+	 * @return a {@link Transaction}.
+	 */
+	public Transaction beginTransaction() {
+		return session.beginTransaction();
+	}
+
+	/**
+	 * Inserts an object.
+	 * 
+	 * @param object a <code>T</code>. It cannot be null.
+	 * @return the generated primary key.
+	 */
+	@SuppressWarnings("unchecked")
+	public K insert(T object) {
+
+		if (object == null) {
+			throw new IllegalArgumentException("Parameter object cannot be null");
+		}
+
+		final K id = (K) session.insert(entityName, object);
+		dao.countChanged(1);
+
+		return id;
+
+	}
+
+	/**
+	 * Inserts a collection of objects.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return the number of inserted objects.
+	 */
+	public int insertAll(Collection<T> objects) {
+
+		if (objects == null) {
+			throw new IllegalArgumentException("Parameter objects cannot be null");
+		}
+
+		for (T object : objects) {
+			insert(object);
+		}
+
+		return objects.size();
+
+	}
+
+	/**
+	 * Inserts a collection of objects using multi-row insert statements, which are executed
+	 * directly through the JDBC connection of the underlying {@link StatelessSession}. It is
+	 * meant to load large amounts of data into tables that are only appended to, such as logs.
+	 * The configured dialect must implement {@link MultiRowInsertDialect} and the entity class
+	 * must be mapped to a single table. As in {@link #insert(Object)}, collections are not
+	 * written. Ids generated by the database are reserved first and inserted explicitly when the
+	 * dialect implements {@link IdentityReservingDialect}. Otherwise, when it implements
+	 * {@link ReturningDialect}, the objects fall back to single-row insert statements executed as
+	 * JDBC batches, so the ids generated for each row can be read back and set in the objects.
+	 * With other dialects, ids generated by the database are not set in the objects.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return the number of inserted objects.
+	 */
+	public int load(Collection<T> objects) {
+
+		if (objects == null) {
+			throw new IllegalArgumentException("Parameter objects cannot be null");
+		}
+
+		final Dialect dialect = ((SessionFactoryImplementor) dao.getSessionFactory()).getDialect();
+
+		if (dialect instanceof MultiRowInsertDialect == false) {
+			throw new IllegalStateException("Dialect " + dialect.getClass().getName()
+					+ " does not implement " + MultiRowInsertDialect.class.getName());
+		}
+
+		final int count = dao.getMultiRowInserter().insert(objects, (SessionImplementor) session,
+				(MultiRowInsertDialect) dialect);
+		dao.countChanged(count);
+
+		return count;
+
+	}
+
+	/**
+	 * Updates an object.
+	 * 
+	 * @param object a <code>T</code>. It cannot be null.
+	 * @throws IllegalArgumentException if <code>object</code> is not persistent.
+	 */
+	public void update(T object) {
+
+		if (dao.isPersistent(object) == false) {
+			throw new IllegalArgumentException("Object not persistent");
+		}
+
+		session.update(entityName, object);
+		invalidate(object);
+
+	}
+
+	/**
+	 * Deletes an object.
+	 * 
+	 * @param object a <code>T</code>. It cannot be null.
+	 */
+	public void delete(T object) {
+
+		if (object == null) {
+			throw new IllegalArgumentException("Parameter object cannot be null");
+		}
+
+		session.delete(entityName, object);
+		dao.countChanged(-1);
+		invalidate(object);
+
+	}
+
+	/**
+	 * Deletes an object given its primary key value.
+	 * 
+	 * @param id a <code>K</code>.
+	 * @return the number of deleted rows.
+	 */
+	public int delete(K id) {
+
+		Query query = session.createQuery(dao.getDeleteHQL());
+		query.setParameter("id", id);
+		final int count = query.executeUpdate();
+		dao.countChanged(-count);
+		dao.invalidateCachedEntities(Collections.singletonList(id), session.getTransaction());
+
+		return count;
+
+	}
+
+	/**
+	 * Removes an object from the entity cache of the DAO, now and after the transaction of the
+	 * underlying {@link StatelessSession} completes.
+	 */
+	private void invalidate(T object) {
+
+		if (dao.getEntityCache() != null) {
+			dao.invalidateCachedEntities(Collections.singletonList(dao.getIdentifier(object)),
+					session.getTransaction());
+		}
+
+	}
+
+	/**
+	 * Returns the underlying {@link StatelessSession}.
+	 * 
+	 * @return a {@link StatelessSession}.
+	 */
+	public StatelessSession getStatelessSession() {
+		return session;
+	}
+
+	/**
+	 * Closes the underlying {@link StatelessSession} and evicts the cached queries of the DAO
+	 * that created this writer.
+	 */
+	public void close() {
+		session.close();
+		dao.evictQueryCache();
+	}
+
+}
@@ -0,0 +1,34 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} that holds resources (a database cursor, for example) that must be
+ * released by invoking {@link #close()} when the iteration is not needed anymore.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the type of the iterated objects.
+ */
+public interface CloseableIterator<T> extends Iterator<T> {
+
+	/**
+	 * Releases the resources held by this iterator. It is invoked automatically when the
+	 * iteration reaches its end and it can be invoked more than once.
+	 */
+	void close();
+
+}
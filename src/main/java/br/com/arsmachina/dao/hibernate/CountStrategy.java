@@ -0,0 +1,45 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+/**
+ * Strategy used by {@link ReadableDAOImpl#countAll()} to count the objects of an entity class.
+ * When no strategy is set, an exact <code>select count(*)</code> is issued in each invocation.
+ * The same instance should be used by the {@link ReadableDAOImpl} and the
+ * {@link WriteableDAOImpl} of an entity class, so it is notified of the writes.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @see MaintainedCountStrategy
+ * @see ApproximateCountStrategy
+ */
+public interface CountStrategy {
+
+	/**
+	 * Returns the number of objects of the entity class handled by a given DAO.
+	 * 
+	 * @param dao a {@link ReadableDAOImpl}. It cannot be null.
+	 * @return an <code>int</code>.
+	 */
+	int countAll(ReadableDAOImpl<?, ?> dao);
+
+	/**
+	 * Notifies this strategy that objects were inserted (positive <code>delta</code>) or deleted
+	 * (negative <code>delta</code>) through a DAO.
+	 * 
+	 * @param delta an <code>int</code>.
+	 */
+	void countChanged(int delta);
+
+}
@@ -0,0 +1,262 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import br.com.arsmachina.dao.SortCriterion;
+import br.com.arsmachina.dao.hibernate.stream.Publisher;
+import br.com.arsmachina.dao.hibernate.stream.Subscriber;
+import br.com.arsmachina.dao.hibernate.stream.Subscription;
+
+/**
+ * {@link Publisher} that reads objects from a forward-only cursor of a {@link StatelessSession}
+ * opened for each subscriber. Rows are read only when there is demand, in the thread that
+ * invokes {@link Subscription#request(long)}, and the session and its connection are released
+ * as soon as the cursor is exhausted, an error happens or the subscription is cancelled.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the type of the published objects.
+ */
+final class CriteriaPublisher<T> implements Publisher<T> {
+
+	final private ReadableDAOImpl<T, ?> dao;
+
+	final private T example;
+
+	final private SortCriterion[] sortCriteria;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param dao a {@link ReadableDAOImpl}. It cannot be null.
+	 * @param example a <code>T</code> or <code>null</code>.
+	 * @param sortCriteria a {@link SortCriterion} array.
+	 */
+	CriteriaPublisher(ReadableDAOImpl<T, ?> dao, T example, SortCriterion[] sortCriteria) {
+
+		assert dao != null;
+
+		this.dao = dao;
+		this.example = example;
+		this.sortCriteria = sortCriteria;
+
+	}
+
+	public void subscribe(Subscriber<? super T> subscriber) {
+
+		if (subscriber == null) {
+			throw new IllegalArgumentException("Parameter subscriber cannot be null");
+		}
+
+		subscriber.onSubscribe(new CriteriaSubscription(subscriber));
+
+	}
+
+	/**
+	 * Subscription of one subscriber. Reading and emission are serialized by a work-in-progress
+	 * counter, so the session is never used by two threads at the same time and
+	 * <code>request()</code> can be invoked from <code>onNext()</code>.
+	 */
+	private class CriteriaSubscription implements Subscription {
+
+		final private Subscriber<? super T> subscriber;
+
+		final private AtomicLong requested = new AtomicLong();
+
+		final private AtomicInteger workInProgress = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		private volatile IllegalArgumentException invalidRequest;
+
+		private boolean done;
+
+		private StatelessSession session;
+
+		private Transaction transaction;
+
+		private ScrollableResults results;
+
+		CriteriaSubscription(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		public void request(long n) {
+
+			if (n <= 0) {
+				invalidRequest =
+					new IllegalArgumentException("Parameter n must be greater than zero");
+			}
+			else {
+
+				long current;
+				long next;
+
+				do {
+					current = requested.get();
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				}
+				while (requested.compareAndSet(current, next) == false);
+
+			}
+
+			drain();
+
+		}
+
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		private void drain() {
+
+			if (workInProgress.getAndIncrement() != 0) {
+				return;
+			}
+
+			int missed = 1;
+
+			do {
+
+				if (done == false) {
+					emit();
+				}
+
+				missed = workInProgress.addAndGet(-missed);
+
+			}
+			while (missed != 0);
+
+		}
+
+		@SuppressWarnings("unchecked")
+		private void emit() {
+
+			try {
+
+				if (cancelled) {
+					finish();
+					return;
+				}
+
+				if (invalidRequest != null) {
+					finish();
+					subscriber.onError(invalidRequest);
+					return;
+				}
+
+				final long demand = requested.get();
+				long emitted = 0;
+
+				while (emitted != demand) {
+
+					if (cancelled) {
+						finish();
+						return;
+					}
+
+					if (results == null) {
+						open();
+					}
+
+					if (results.next() == false) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+
+					subscriber.onNext((T) results.get(0));
+					emitted++;
+
+				}
+
+				if (emitted > 0 && demand != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+
+			}
+			catch (RuntimeException e) {
+
+				if (done) {
+					throw e;
+				}
+
+				finish();
+				subscriber.onError(e);
+
+			}
+
+		}
+
+		private void open() {
+
+			session = dao.getSessionFactory().openStatelessSession();
+			transaction = session.beginTransaction();
+			results = dao.createStreamCriteria(session, example, sortCriteria).scroll(
+					ScrollMode.FORWARD_ONLY);
+
+		}
+
+		/**
+		 * Marks this subscription as done and releases the cursor, the transaction and the
+		 * session.
+		 */
+		private void finish() {
+
+			done = true;
+
+			try {
+
+				if (results != null) {
+					results.close();
+				}
+
+			}
+			finally {
+
+				try {
+
+					if (transaction != null && transaction.isActive()) {
+						transaction.commit();
+					}
+
+				}
+				finally {
+
+					if (session != null) {
+						session.close();
+					}
+
+					results = null;
+					transaction = null;
+					session = null;
+
+				}
+
+			}
+
+		}
+
+	}
+
+}
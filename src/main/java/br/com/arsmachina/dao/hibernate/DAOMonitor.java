@@ -0,0 +1,52 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import org.hibernate.metadata.ClassMetadata;
+
+/**
+ * Interface of objects notified of each operation performed by {@link ReadableDAOImpl} and
+ * {@link WriteableDAOImpl} instances. It is set in a DAO through <code>setMonitor()</code>.
+ * Implementations are invoked in the thread that performs the operation, so they must be
+ * thread-safe and fast.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface DAOMonitor {
+
+	/**
+	 * Invoked before an operation starts.
+	 * 
+	 * @param classMetadata the {@link ClassMetadata} of the DAO entity class.
+	 * @param operation a {@link DAOOperation}.
+	 */
+	void operationStarted(ClassMetadata classMetadata, DAOOperation operation);
+
+	/**
+	 * Invoked after an operation finishes, successfully or not.
+	 * 
+	 * @param classMetadata the {@link ClassMetadata} of the DAO entity class.
+	 * @param operation a {@link DAOOperation}.
+	 * @param elapsedNanos the time spent in the operation, in nanoseconds.
+	 * @param rows the number of objects returned or written by the operation.
+	 * @param failure the exception thrown by the operation or <code>null</code>.
+	 * @param query the {@link org.hibernate.Criteria} or HQL query executed by the operation or
+	 * <code>null</code> if there is none or there are more than one.
+	 * @param arguments the operation arguments. It must not be changed.
+	 */
+	void operationFinished(ClassMetadata classMetadata, DAOOperation operation,
+			long elapsedNanos, int rows, Throwable failure, Object query, Object[] arguments);
+
+}
@@ -0,0 +1,135 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+/**
+ * Enumeration of the operations performed by the DAOs in this package. It is used to configure
+ * per-operation behavior, such as query caching, and to identify operations reported to a
+ * {@link DAOMonitor}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public enum DAOOperation {
+
+	/**
+	 * {@link ReadableDAOImpl#countAll()}.
+	 */
+	COUNT_ALL,
+
+	/**
+	 * {@link ReadableDAOImpl#findAll()}.
+	 */
+	FIND_ALL,
+
+	/**
+	 * {@link ReadableDAOImpl#findAll(int, int, br.com.arsmachina.dao.SortCriterion...)}.
+	 */
+	FIND_ALL_PAGED,
+
+	/**
+	 * {@link ReadableDAOImpl#findAllAfter(Object[], java.io.Serializable, int,
+	 * br.com.arsmachina.dao.SortCriterion...)}.
+	 */
+	FIND_ALL_AFTER,
+
+	/**
+	 * {@link ReadableDAOImpl#findAllAsArrays(int, int, String[],
+	 * br.com.arsmachina.dao.SortCriterion...)} and the other projection methods.
+	 */
+	FIND_PROJECTION,
+
+	/**
+	 * {@link ReadableDAOImpl#findByExample(Object)}.
+	 */
+	FIND_BY_EXAMPLE,
+
+	/**
+	 * {@link ReadableDAOImpl#findById(java.io.Serializable)}.
+	 */
+	FIND_BY_ID,
+
+	/**
+	 * {@link ReadableDAOImpl#findByIds(java.io.Serializable...)}.
+	 */
+	FIND_BY_IDS,
+
+	/**
+	 * {@link ReadableDAOImpl#refresh(Object)}.
+	 */
+	REFRESH,
+
+	/**
+	 * {@link WriteableDAOImpl#save(Object)}.
+	 */
+	SAVE,
+
+	/**
+	 * {@link WriteableDAOImpl#update(Object)}.
+	 */
+	UPDATE,
+
+	/**
+	 * {@link WriteableDAOImpl#delete(Object)}.
+	 */
+	DELETE,
+
+	/**
+	 * {@link WriteableDAOImpl#delete(java.io.Serializable)}.
+	 */
+	DELETE_BY_ID,
+
+	/**
+	 * {@link WriteableDAOImpl#deleteByIds(java.util.Collection, boolean)}.
+	 */
+	DELETE_BY_IDS,
+
+	/**
+	 * {@link WriteableDAOImpl#deleteByCriteria(org.hibernate.criterion.DetachedCriteria, boolean)}.
+	 */
+	DELETE_BY_CRITERIA,
+
+	/**
+	 * {@link WriteableDAOImpl#saveAll(java.util.Collection)}.
+	 */
+	SAVE_ALL,
+
+	/**
+	 * {@link WriteableDAOImpl#updateAll(java.util.Collection)}.
+	 */
+	UPDATE_ALL,
+
+	/**
+	 * {@link WriteableDAOImpl#deleteAll(java.util.Collection)}.
+	 */
+	DELETE_ALL,
+
+	/**
+	 * {@link WriteableDAOImpl#upsertAll(java.util.Collection)}.
+	 */
+	UPSERT_ALL,
+
+	/**
+	 * {@link WriteableDAOImpl#updateByIds(java.util.Collection, java.util.Map, boolean)}.
+	 */
+	UPDATE_BY_IDS,
+
+	/**
+	 * {@link WriteableDAOImpl#updateByCriteria(org.hibernate.criterion.DetachedCriteria,
+	 * java.util.Map, boolean)} and
+	 * {@link WriteableDAOImpl#updateByExample(Object, java.util.Map, boolean)}.
+	 */
+	UPDATE_BY_CRITERIA
+
+}
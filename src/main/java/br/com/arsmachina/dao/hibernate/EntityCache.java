@@ -0,0 +1,471 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-process cache of entity states keyed by entity name and primary key value. It is
+ * used by {@link ReadableDAOImpl#findById(Serializable)} and
+ * {@link ReadableDAOImpl#findByIds(Serializable...)} and invalidated by the write methods of
+ * {@link WriteableDAOImpl} when set in both through <code>setEntityCache()</code>.
+ * <p>
+ * The entries are split in lock-protected segments, each one kept in least recently used order.
+ * When a segment is full, a new entry is only admitted if it was accessed more frequently than
+ * the least recently used one (TinyLFU admission policy), so one-time lookups do not evict hot
+ * entities. Access frequencies are estimated by a small count-min sketch that is halved
+ * periodically, so old popularity fades away.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class EntityCache {
+
+	/**
+	 * Default number of segments.
+	 */
+	final public static int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	final private Segment[] segments;
+
+	final private int segmentMask;
+
+	final private FrequencySketch sketch;
+
+	final private AtomicLong hits = new AtomicLong();
+
+	final private AtomicLong misses = new AtomicLong();
+
+	final private AtomicLong evictions = new AtomicLong();
+
+	final private AtomicLong rejections = new AtomicLong();
+
+	/**
+	 * Constructor that takes the maximum number of entries and uses
+	 * {@link #DEFAULT_CONCURRENCY_LEVEL}.
+	 * 
+	 * @param maximumSize an <code>int</code>. It must be greater than zero.
+	 */
+	public EntityCache(int maximumSize) {
+		this(maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Constructor that takes the maximum number of entries and the number of segments.
+	 * 
+	 * @param maximumSize an <code>int</code>. It must be greater than zero.
+	 * @param concurrencyLevel the number of segments. It is rounded up to a power of two.
+	 */
+	public EntityCache(int maximumSize, int concurrencyLevel) {
+
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("Parameter maximumSize must be greater than zero");
+		}
+
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException(
+					"Parameter concurrencyLevel must be greater than zero");
+		}
+
+		int segmentCount = 1;
+
+		while (segmentCount < concurrencyLevel && segmentCount < maximumSize) {
+			segmentCount <<= 1;
+		}
+
+		segments = new Segment[segmentCount];
+		segmentMask = segmentCount - 1;
+
+		final int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+
+		sketch = new FrequencySketch(maximumSize);
+
+	}
+
+	/**
+	 * Returns the cached state of an entity or <code>null</code> if it is not cached.
+	 * 
+	 * @param entityName a {@link String}. It cannot be null.
+	 * @param id a {@link Serializable}. It cannot be null.
+	 * @return an {@link Object} array or <code>null</code>.
+	 */
+	public Object[] get(String entityName, Serializable id) {
+
+		final Key key = new Key(entityName, id);
+		sketch.increment(key.hash);
+
+		final Object[] state = segmentFor(key).get(key);
+
+		if (state != null) {
+			hits.incrementAndGet();
+		}
+		else {
+			misses.incrementAndGet();
+		}
+
+		return state;
+
+	}
+
+	/**
+	 * Caches the state of an entity. If the segment it falls in is full, the entry is only
+	 * stored if it is used more frequently than the least recently used one, which is evicted.
+	 * 
+	 * @param entityName a {@link String}. It cannot be null.
+	 * @param id a {@link Serializable}. It cannot be null.
+	 * @param state an {@link Object} array. It cannot be null and it must not be changed after
+	 * this method is invoked.
+	 */
+	public void put(String entityName, Serializable id, Object[] state) {
+
+		if (state == null) {
+			throw new IllegalArgumentException("Parameter state cannot be null");
+		}
+
+		final Key key = new Key(entityName, id);
+		segmentFor(key).put(key, state);
+
+	}
+
+	/**
+	 * Removes an entity from this cache.
+	 * 
+	 * @param entityName a {@link String}. It cannot be null.
+	 * @param id a {@link Serializable}. It cannot be null.
+	 */
+	public void invalidate(String entityName, Serializable id) {
+
+		final Key key = new Key(entityName, id);
+		segmentFor(key).remove(key);
+
+	}
+
+	/**
+	 * Removes all entities from this cache.
+	 */
+	public void invalidateAll() {
+
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+
+	}
+
+	/**
+	 * Returns the number of cached entities.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int size() {
+
+		int size = 0;
+
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+
+		return size;
+
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached entity.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a cached entity.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of entities removed from this cache to make room for new ones.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Returns the number of entities that were not cached because they were used less frequently
+	 * than the ones that would be evicted.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getRejectionCount() {
+		return rejections.get();
+	}
+
+	/**
+	 * Returns the segment that holds a given key.
+	 * 
+	 * @param key a {@link Key}.
+	 * @return a {@link Segment}.
+	 */
+	private Segment segmentFor(Key key) {
+		return segments[(key.hash >>> 16) & segmentMask];
+	}
+
+	/**
+	 * Cache key: entity name and primary key value.
+	 */
+	final private static class Key {
+
+		final private String entityName;
+
+		final private Serializable id;
+
+		final private int hash;
+
+		Key(String entityName, Serializable id) {
+
+			if (entityName == null) {
+				throw new IllegalArgumentException("Parameter entityName cannot be null");
+			}
+
+			if (id == null) {
+				throw new IllegalArgumentException("Parameter id cannot be null");
+			}
+
+			this.entityName = entityName;
+			this.id = id;
+
+			int h = entityName.hashCode() * 31 + id.hashCode();
+			h ^= (h >>> 20) ^ (h >>> 12);
+			hash = h ^ (h >>> 7) ^ (h >>> 4);
+
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+
+			if (object == this) {
+				return true;
+			}
+
+			if (object instanceof Key == false) {
+				return false;
+			}
+
+			final Key other = (Key) object;
+			return entityName.equals(other.entityName) && id.equals(other.id);
+
+		}
+
+	}
+
+	/**
+	 * A lock-protected part of the cache kept in least recently used order.
+	 */
+	@SuppressWarnings("serial")
+	final private class Segment extends ReentrantLock {
+
+		final private int capacity;
+
+		final private LinkedHashMap<Key, Object[]> map;
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+			map = new LinkedHashMap<Key, Object[]>(capacity * 4 / 3 + 1, 0.75f, true);
+		}
+
+		Object[] get(Key key) {
+
+			lock();
+
+			try {
+				return map.get(key);
+			}
+			finally {
+				unlock();
+			}
+
+		}
+
+		void put(Key key, Object[] state) {
+
+			lock();
+
+			try {
+
+				if (map.containsKey(key) || map.size() < capacity) {
+					map.put(key, state);
+					return;
+				}
+
+				final Iterator<Map.Entry<Key, Object[]>> iterator = map.entrySet().iterator();
+				final Key victim = iterator.next().getKey();
+
+				if (sketch.frequency(key.hash) > sketch.frequency(victim.hash)) {
+					iterator.remove();
+					map.put(key, state);
+					evictions.incrementAndGet();
+				}
+				else {
+					rejections.incrementAndGet();
+				}
+
+			}
+			finally {
+				unlock();
+			}
+
+		}
+
+		void remove(Key key) {
+
+			lock();
+
+			try {
+				map.remove(key);
+			}
+			finally {
+				unlock();
+			}
+
+		}
+
+		void clear() {
+
+			lock();
+
+			try {
+				map.clear();
+			}
+			finally {
+				unlock();
+			}
+
+		}
+
+		int size() {
+
+			lock();
+
+			try {
+				return map.size();
+			}
+			finally {
+				unlock();
+			}
+
+		}
+
+	}
+
+	/**
+	 * Count-min sketch of 4-bit-like saturating counters used to estimate access frequencies.
+	 * Updates are not synchronized: lost increments under contention only make the estimates a
+	 * little less accurate, which is acceptable for an admission policy.
+	 */
+	final private static class FrequencySketch {
+
+		final private static int MAXIMUM_COUNT = 15;
+
+		final private static long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+				0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+		final private int[] table;
+
+		final private int width;
+
+		final private int sampleSize;
+
+		private int additions;
+
+		FrequencySketch(int maximumSize) {
+
+			width = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+			table = new int[width * SEEDS.length];
+			sampleSize = 10 * Math.max(maximumSize, 16);
+
+		}
+
+		void increment(int hash) {
+
+			boolean added = false;
+
+			for (int row = 0; row < SEEDS.length; row++) {
+
+				final int index = indexOf(hash, row);
+
+				if (table[index] < MAXIMUM_COUNT) {
+					table[index]++;
+					added = true;
+				}
+
+			}
+
+			if (added && ++additions >= sampleSize) {
+				reset();
+			}
+
+		}
+
+		int frequency(int hash) {
+
+			int frequency = MAXIMUM_COUNT;
+
+			for (int row = 0; row < SEEDS.length; row++) {
+				frequency = Math.min(frequency, table[indexOf(hash, row)]);
+			}
+
+			return frequency;
+
+		}
+
+		private int indexOf(int hash, int row) {
+
+			long h = (hash + SEEDS[row]) * SEEDS[row];
+			h += h >>> 32;
+			return row * width + ((int) h & (width - 1));
+
+		}
+
+		private void reset() {
+
+			additions = 0;
+
+			for (int i = 0; i < table.length; i++) {
+				table[i] >>>= 1;
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,34 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+/**
+ * Interface of objects that receive the objects read by
+ * {@link ReadableDAOImpl#scan(int, EntityConsumer)}. As the partitions are read concurrently,
+ * implementations must be thread-safe.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the entity class.
+ */
+public interface EntityConsumer<T> {
+
+	/**
+	 * Receives one object.
+	 * 
+	 * @param object a <code>T</code>.
+	 */
+	void consume(T object);
+
+}
@@ -0,0 +1,126 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.Arrays;
+
+/**
+ * Associations and collections to load together with the objects returned by a find method of
+ * {@link ReadableDAOImpl}, so the whole object graph needed by a caller is read in a constant
+ * number of queries instead of one query per object.
+ * <p>
+ * Join paths are fetched in the same query as the objects, using an outer join. When a page of
+ * objects is requested, the primary keys of the page are read first and the objects are then
+ * read by primary key, so the joined rows do not affect the paging.
+ * </p>
+ * <p>
+ * Batch paths are fetched after the objects, using one additional query for each path and each
+ * {@link BaseHibernateDAO#getMaximumInListSize()} objects. They should be used for collections
+ * when more than one collection is fetched, which would multiply the number of joined rows.
+ * </p>
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class FetchPlan {
+
+	final private static String[] NO_PATHS = new String[0];
+
+	final private String[] joinPaths;
+
+	final private String[] batchPaths;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param joinPaths the paths fetched using a join or <code>null</code>.
+	 * @param batchPaths the paths fetched using additional queries or <code>null</code>.
+	 */
+	public FetchPlan(String[] joinPaths, String[] batchPaths) {
+
+		this.joinPaths = joinPaths != null ? joinPaths.clone() : NO_PATHS;
+		this.batchPaths = batchPaths != null ? batchPaths.clone() : NO_PATHS;
+
+		for (String path : this.joinPaths) {
+
+			if (path == null) {
+				throw new IllegalArgumentException("Paths cannot be null");
+			}
+
+		}
+
+		for (String path : this.batchPaths) {
+
+			if (path == null) {
+				throw new IllegalArgumentException("Paths cannot be null");
+			}
+
+		}
+
+	}
+
+	/**
+	 * Returns a {@link FetchPlan} that fetches the given paths using a join.
+	 * 
+	 * @param paths a {@link String}<code>...</code>.
+	 * @return a {@link FetchPlan}.
+	 */
+	public static FetchPlan join(String... paths) {
+		return new FetchPlan(paths, null);
+	}
+
+	/**
+	 * Returns a {@link FetchPlan} that fetches the given paths using additional queries.
+	 * 
+	 * @param paths a {@link String}<code>...</code>.
+	 * @return a {@link FetchPlan}.
+	 */
+	public static FetchPlan batch(String... paths) {
+		return new FetchPlan(null, paths);
+	}
+
+	/**
+	 * Returns the paths fetched using a join.
+	 * 
+	 * @return a {@link String} array.
+	 */
+	public String[] getJoinPaths() {
+		return joinPaths.clone();
+	}
+
+	/**
+	 * Returns the paths fetched using additional queries.
+	 * 
+	 * @return a {@link String} array.
+	 */
+	public String[] getBatchPaths() {
+		return batchPaths.clone();
+	}
+
+	/**
+	 * Returns <code>true</code> if there is at least one join path.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	public boolean hasJoinPaths() {
+		return joinPaths.length > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "FetchPlan(join: " + Arrays.asList(joinPaths) + ", batch: "
+				+ Arrays.asList(batchPaths) + ")";
+	}
+
+}
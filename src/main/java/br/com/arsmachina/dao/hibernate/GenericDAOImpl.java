@@ -17,16 +17,22 @@ package br.com.arsmachina.dao.hibernate;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.classic.Session;
+import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Example;
 import org.hibernate.metadata.ClassMetadata;
 
 import br.com.arsmachina.dao.DAO;
 import br.com.arsmachina.dao.SortCriterion;
+import br.com.arsmachina.dao.hibernate.stream.Publisher;
 
 /**
  * {@link AbstractDAO} implementation using Hibernate. All methods use {@link #getSession()} to get
@@ -90,6 +96,15 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return readableDAO.countAll();
 	}
 
+	/**
+	 * Invokes <code>readableDAO.countAllExactly()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#countAllExactly()
+	 */
+	public int countAllExactly() {
+		return readableDAO.countAllExactly();
+	}
+
 	public List<T> findAll() {
 		return readableDAO.findAll();
 	}
@@ -98,6 +113,91 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return readableDAO.findAll(firstResult, maximumResults, sortingConstraints);
 	}
 
+	/**
+	 * Invokes <code>readableDAO.findAllAfter()<code>.
+	 * @param last
+	 * @param maximumResults
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllAfter(java.lang.Object, int, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<T> findAllAfter(T last, int maximumResults, SortCriterion... sortCriteria) {
+		return readableDAO.findAllAfter(last, maximumResults, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllAfter()<code>.
+	 * @param lastSortValues
+	 * @param lastId
+	 * @param maximumResults
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllAfter(java.lang.Object[], java.io.Serializable, int, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<T> findAllAfter(Object[] lastSortValues, K lastId, int maximumResults,
+			SortCriterion... sortCriteria) {
+		return readableDAO.findAllAfter(lastSortValues, lastId, maximumResults, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllAsArrays()<code>.
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param properties
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllAsArrays(int, int, java.lang.String[], br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<Object[]> findAllAsArrays(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+		return readableDAO.findAllAsArrays(firstResult, maximumResults, properties, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllAsMaps()<code>.
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param properties
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllAsMaps(int, int, java.lang.String[], br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<Map<String, Object>> findAllAsMaps(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+		return readableDAO.findAllAsMaps(firstResult, maximumResults, properties, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllAsDTOs()<code>.
+	 * @param dtoClass
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param properties
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllAsDTOs(java.lang.Class, int, int, java.lang.String[], br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public <D> List<D> findAllAsDTOs(Class<D> dtoClass, int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+		return readableDAO.findAllAsDTOs(dtoClass, firstResult, maximumResults, properties,
+				sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.createProjectionCriteria()<code>.
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param properties
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#createProjectionCriteria(int, int, java.lang.String[], br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public Criteria createProjectionCriteria(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+		return readableDAO.createProjectionCriteria(firstResult, maximumResults, properties,
+				sortCriteria);
+	}
+
 	public List<T> findByExample(T example) {
 		return readableDAO.findByExample(example);
 	}
@@ -106,10 +206,180 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return readableDAO.findById(id);
 	}
 
+	/**
+	 * Invokes <code>readableDAO.iterateAll()<code>.
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#iterateAll(br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public CloseableIterator<T> iterateAll(SortCriterion... sortCriteria) {
+		return readableDAO.iterateAll(sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.iterate()<code>.
+	 * @param criteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#iterate(org.hibernate.Criteria)
+	 */
+	public CloseableIterator<T> iterate(Criteria criteria) {
+		return readableDAO.iterate(criteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.publishAll()<code>.
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#publishAll(br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public Publisher<T> publishAll(SortCriterion... sortCriteria) {
+		return readableDAO.publishAll(sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.publishByExample()<code>.
+	 * @param example
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#publishByExample(java.lang.Object, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public Publisher<T> publishByExample(T example, SortCriterion... sortCriteria) {
+		return readableDAO.publishByExample(example, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.scan()<code>.
+	 * @param partitions
+	 * @param consumer
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#scan(int, br.com.arsmachina.dao.hibernate.EntityConsumer)
+	 */
+	public long scan(int partitions, EntityConsumer<T> consumer) {
+		return readableDAO.scan(partitions, consumer);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.scan()<code>.
+	 * @param partitions
+	 * @param executor
+	 * @param consumer
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#scan(int, java.util.concurrent.ExecutorService, br.com.arsmachina.dao.hibernate.EntityConsumer)
+	 */
+	public long scan(int partitions, ExecutorService executor, EntityConsumer<T> consumer) {
+		return readableDAO.scan(partitions, executor, consumer);
+	}
+
 	public List<T> findByIds(K... ids) {
 		return readableDAO.findByIds(ids);
 	}
 
+	/**
+	 * Invokes <code>readableDAO.findAll()<code>.
+	 * @param fetchPlan
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAll(br.com.arsmachina.dao.hibernate.FetchPlan)
+	 */
+	public List<T> findAll(FetchPlan fetchPlan) {
+		return readableDAO.findAll(fetchPlan);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAll()<code>.
+	 * @param fetchPlan
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAll(br.com.arsmachina.dao.hibernate.FetchPlan, int, int, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<T> findAll(FetchPlan fetchPlan, int firstResult, int maximumResults,
+			SortCriterion... sortCriteria) {
+		return readableDAO.findAll(fetchPlan, firstResult, maximumResults, sortCriteria);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findById()<code>.
+	 * @param id
+	 * @param fetchPlan
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findById(java.io.Serializable, br.com.arsmachina.dao.hibernate.FetchPlan)
+	 */
+	public T findById(K id, FetchPlan fetchPlan) {
+		return readableDAO.findById(id, fetchPlan);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findByIds()<code>.
+	 * @param fetchPlan
+	 * @param ids
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findByIds(br.com.arsmachina.dao.hibernate.FetchPlan, K[])
+	 */
+	public List<T> findByIds(FetchPlan fetchPlan, K... ids) {
+		return readableDAO.findByIds(fetchPlan, ids);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllReadOnly()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllReadOnly()
+	 */
+	public List<T> findAllReadOnly() {
+		return readableDAO.findAllReadOnly();
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findAllReadOnly()<code>.
+	 * @param firstResult
+	 * @param maximumResults
+	 * @param sortingConstraints
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAllReadOnly(int, int, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<T> findAllReadOnly(int firstResult, int maximumResults,
+			SortCriterion... sortingConstraints) {
+		return readableDAO.findAllReadOnly(firstResult, maximumResults, sortingConstraints);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findByExampleReadOnly()<code>.
+	 * @param example
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findByExampleReadOnly(java.lang.Object)
+	 */
+	public List<T> findByExampleReadOnly(T example) {
+		return readableDAO.findByExampleReadOnly(example);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.findByIdsReadOnly()<code>.
+	 * @param ids
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findByIdsReadOnly(K[])
+	 */
+	public List<T> findByIdsReadOnly(K... ids) {
+		return readableDAO.findByIdsReadOnly(ids);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.isReadOnly()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#isReadOnly()
+	 */
+	public boolean isReadOnly() {
+		return readableDAO.isReadOnly();
+	}
+
+	/**
+	 * Invokes <code>readableDAO.setReadOnly()<code>.
+	 * @param readOnly
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#setReadOnly(boolean)
+	 */
+	public void setReadOnly(boolean readOnly) {
+		readableDAO.setReadOnly(readOnly);
+	}
+
 	public void refresh(T object) {
 		readableDAO.refresh(object);
 	}
@@ -122,6 +392,93 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		writeableDAO.delete(id);
 	}
 
+	/**
+	 * Invokes <code>writeableDAO.deleteByIds()<code>.
+	 * @param ids
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#deleteByIds(java.util.Collection)
+	 */
+	public int deleteByIds(Collection<K> ids) {
+		return writeableDAO.deleteByIds(ids);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.deleteByIds()<code>.
+	 * @param ids
+	 * @param evict
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#deleteByIds(java.util.Collection, boolean)
+	 */
+	public int deleteByIds(Collection<K> ids, boolean evict) {
+		return writeableDAO.deleteByIds(ids, evict);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.deleteByCriteria()<code>.
+	 * @param criteria
+	 * @param evict
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#deleteByCriteria(org.hibernate.criterion.DetachedCriteria, boolean)
+	 */
+	public int deleteByCriteria(DetachedCriteria criteria, boolean evict) {
+		return writeableDAO.deleteByCriteria(criteria, evict);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.updateByIds()<code>.
+	 * @param ids
+	 * @param assignments
+	 * @param evict
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#updateByIds(java.util.Collection, java.util.Map, boolean)
+	 */
+	public int updateByIds(Collection<K> ids, Map<String, ?> assignments, boolean evict) {
+		return writeableDAO.updateByIds(ids, assignments, evict);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.updateByCriteria()<code>.
+	 * @param criteria
+	 * @param assignments
+	 * @param evict
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#updateByCriteria(org.hibernate.criterion.DetachedCriteria, java.util.Map, boolean)
+	 */
+	public int updateByCriteria(DetachedCriteria criteria, Map<String, ?> assignments,
+			boolean evict) {
+		return writeableDAO.updateByCriteria(criteria, assignments, evict);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.updateByExample()<code>.
+	 * @param example
+	 * @param assignments
+	 * @param evict
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#updateByExample(java.lang.Object, java.util.Map, boolean)
+	 */
+	public int updateByExample(T example, Map<String, ?> assignments, boolean evict) {
+		return writeableDAO.updateByExample(example, assignments, evict);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.isVersionIncremented()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#isVersionIncremented()
+	 */
+	public boolean isVersionIncremented() {
+		return writeableDAO.isVersionIncremented();
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.setVersionIncremented()<code>.
+	 * @param versionIncremented
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#setVersionIncremented(boolean)
+	 */
+	public void setVersionIncremented(boolean versionIncremented) {
+		writeableDAO.setVersionIncremented(versionIncremented);
+	}
+
 	public void evict(T object) {
 		writeableDAO.evict(object);
 	}
@@ -138,6 +495,83 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return writeableDAO.update(object);
 	}
 
+	/**
+	 * Invokes <code>writeableDAO.saveAll()<code>.
+	 * @param objects
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#saveAll(java.util.Collection)
+	 */
+	public int[] saveAll(Collection<T> objects) {
+		return writeableDAO.saveAll(objects);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.updateAll()<code>.
+	 * @param objects
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#updateAll(java.util.Collection)
+	 */
+	public int[] updateAll(Collection<T> objects) {
+		return writeableDAO.updateAll(objects);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.deleteAll()<code>.
+	 * @param objects
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#deleteAll(java.util.Collection)
+	 */
+	public int[] deleteAll(Collection<T> objects) {
+		return writeableDAO.deleteAll(objects);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.upsertAll()<code>.
+	 * @param objects
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#upsertAll(java.util.Collection)
+	 */
+	public UpsertResult upsertAll(Collection<T> objects) {
+		return writeableDAO.upsertAll(objects);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.openBulkWriter()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#openBulkWriter()
+	 */
+	public BulkWriter<T, K> openBulkWriter() {
+		return writeableDAO.openBulkWriter();
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.openBulkWriter()<code>.
+	 * @param connection
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#openBulkWriter(java.sql.Connection)
+	 */
+	public BulkWriter<T, K> openBulkWriter(Connection connection) {
+		return writeableDAO.openBulkWriter(connection);
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.getBatchSize()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#getBatchSize()
+	 */
+	public int getBatchSize() {
+		return writeableDAO.getBatchSize();
+	}
+
+	/**
+	 * Invokes <code>writeableDAO.setBatchSize()<code>.
+	 * @param batchSize
+	 * @see br.com.arsmachina.dao.hibernate.WriteableDAOImpl#setBatchSize(int)
+	 */
+	public void setBatchSize(int batchSize) {
+		writeableDAO.setBatchSize(batchSize);
+	}
+
 	public T reattach(T object) {
 		return readableDAO.reattach(object);
 	}
@@ -203,6 +637,21 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return readableDAO.createCriteria(firstIndex, maximumResults, sortCriteria);
 	}
 
+	/**
+	 * Invokes <code>readableDAO.createKeysetCriteria()<code>.
+	 * @param lastSortValues
+	 * @param lastId
+	 * @param maximumResults
+	 * @param sortCriteria
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#createKeysetCriteria(java.lang.Object[], java.io.Serializable, int, br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public Criteria createKeysetCriteria(Object[] lastSortValues, K lastId, int maximumResults,
+			SortCriterion... sortCriteria) {
+		return readableDAO.createKeysetCriteria(lastSortValues, lastId, maximumResults,
+				sortCriteria);
+	}
+
 	/**
 	 * Invokes <code>readableDAO.createExample()<code>.
 	 * @param entity
@@ -213,6 +662,142 @@ public class GenericDAOImpl<T, K extends Serializable> implements DAO<T, K> {
 		return readableDAO.createExample(entity);
 	}
 
+	/**
+	 * Invokes <code>readableDAO.getQueryCacheSettings()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#getQueryCacheSettings()
+	 */
+	public QueryCacheSettings getQueryCacheSettings() {
+		return readableDAO.getQueryCacheSettings();
+	}
+
+	/**
+	 * Changes the query cache settings of both the internal {@link ReadableDAOImpl} and
+	 * {@link WriteableDAOImpl}, so writes evict the queries cached by reads.
+	 * @param queryCacheSettings
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#setQueryCacheSettings(QueryCacheSettings)
+	 */
+	public void setQueryCacheSettings(QueryCacheSettings queryCacheSettings) {
+		readableDAO.setQueryCacheSettings(queryCacheSettings);
+		writeableDAO.setQueryCacheSettings(queryCacheSettings);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getEntityCache()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#getEntityCache()
+	 */
+	public EntityCache getEntityCache() {
+		return readableDAO.getEntityCache();
+	}
+
+	/**
+	 * Changes the entity cache of both the internal {@link ReadableDAOImpl} and
+	 * {@link WriteableDAOImpl}, so writes invalidate the cached objects.
+	 * @param entityCache
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#setEntityCache(EntityCache)
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		readableDAO.setEntityCache(entityCache);
+		writeableDAO.setEntityCache(entityCache);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getCountStrategy()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#getCountStrategy()
+	 */
+	public CountStrategy getCountStrategy() {
+		return readableDAO.getCountStrategy();
+	}
+
+	/**
+	 * Changes the count strategy of both the internal {@link ReadableDAOImpl} and
+	 * {@link WriteableDAOImpl}, so the strategy is notified of the writes.
+	 * @param countStrategy
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#setCountStrategy(CountStrategy)
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		readableDAO.setCountStrategy(countStrategy);
+		writeableDAO.setCountStrategy(countStrategy);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getMonitor()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#getMonitor()
+	 */
+	public DAOMonitor getMonitor() {
+		return readableDAO.getMonitor();
+	}
+
+	/**
+	 * Changes the monitor of both the internal {@link ReadableDAOImpl} and
+	 * {@link WriteableDAOImpl}.
+	 * @param monitor
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#setMonitor(DAOMonitor)
+	 */
+	public void setMonitor(DAOMonitor monitor) {
+		readableDAO.setMonitor(monitor);
+		writeableDAO.setMonitor(monitor);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getMaximumInListSize()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#getMaximumInListSize()
+	 */
+	public int getMaximumInListSize() {
+		return readableDAO.getMaximumInListSize();
+	}
+
+	/**
+	 * Changes the maximum in list size of both the internal {@link ReadableDAOImpl} and
+	 * {@link WriteableDAOImpl}.
+	 * @param maximumInListSize
+	 * @see br.com.arsmachina.dao.hibernate.BaseHibernateDAO#setMaximumInListSize(int)
+	 */
+	public void setMaximumInListSize(int maximumInListSize) {
+		readableDAO.setMaximumInListSize(maximumInListSize);
+		writeableDAO.setMaximumInListSize(maximumInListSize);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getFetchSize()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#getFetchSize()
+	 */
+	public int getFetchSize() {
+		return readableDAO.getFetchSize();
+	}
+
+	/**
+	 * Invokes <code>readableDAO.setFetchSize()<code>.
+	 * @param fetchSize
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#setFetchSize(int)
+	 */
+	public void setFetchSize(int fetchSize) {
+		readableDAO.setFetchSize(fetchSize);
+	}
+
+	/**
+	 * Invokes <code>readableDAO.getClearInterval()<code>.
+	 * @return
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#getClearInterval()
+	 */
+	public int getClearInterval() {
+		return readableDAO.getClearInterval();
+	}
+
+	/**
+	 * Invokes <code>readableDAO.setClearInterval()<code>.
+	 * @param clearInterval
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#setClearInterval(int)
+	 */
+	public void setClearInterval(int clearInterval) {
+		readableDAO.setClearInterval(clearInterval);
+	}
+
 	/**
 	 * Returns the entity class handled by this DAO.
 	 * 
@@ -0,0 +1,100 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CountStrategy} that keeps the number of objects in memory. It is read from the database
+ * in the first invocation of {@link #countAll(ReadableDAOImpl)}, then kept up to date by the
+ * writes done through {@link WriteableDAOImpl} and read again from the database each
+ * <code>reconciliationInterval</code> milliseconds, so writes done by other means, like rolled
+ * back transactions or other applications, are eventually taken into account.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class MaintainedCountStrategy implements CountStrategy {
+
+	/**
+	 * Default reconciliation interval: 5 minutes.
+	 */
+	final public static long DEFAULT_RECONCILIATION_INTERVAL = 5 * 60 * 1000;
+
+	final private AtomicInteger count = new AtomicInteger();
+
+	final private long reconciliationInterval;
+
+	private volatile long lastReconciliation;
+
+	private volatile boolean initialized;
+
+	/**
+	 * Constructor that uses {@link #DEFAULT_RECONCILIATION_INTERVAL}.
+	 */
+	public MaintainedCountStrategy() {
+		this(DEFAULT_RECONCILIATION_INTERVAL);
+	}
+
+	/**
+	 * Constructor that takes the reconciliation interval.
+	 * 
+	 * @param reconciliationInterval the interval, in milliseconds, between reads of the exact
+	 * number of objects from the database. Zero means it is read only once.
+	 */
+	public MaintainedCountStrategy(long reconciliationInterval) {
+
+		if (reconciliationInterval < 0) {
+			throw new IllegalArgumentException(
+					"Parameter reconciliationInterval cannot be negative");
+		}
+
+		this.reconciliationInterval = reconciliationInterval;
+
+	}
+
+	public int countAll(ReadableDAOImpl<?, ?> dao) {
+
+		final long now = System.currentTimeMillis();
+
+		if (initialized == false
+				|| (reconciliationInterval > 0 && now - lastReconciliation > reconciliationInterval)) {
+
+			lastReconciliation = now;
+			count.set(dao.countAllExactly());
+			initialized = true;
+
+		}
+
+		return count.get();
+
+	}
+
+	public void countChanged(int delta) {
+
+		if (initialized) {
+			count.addAndGet(delta);
+		}
+
+	}
+
+	/**
+	 * Forces the number of objects to be read from the database in the next invocation of
+	 * {@link #countAll(ReadableDAOImpl)}.
+	 */
+	public void reset() {
+		initialized = false;
+	}
+
+}
@@ -0,0 +1,541 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.EntityMode;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Versioning;
+import org.hibernate.exception.JDBCExceptionHelper;
+import org.hibernate.id.IdentifierGeneratorFactory;
+import org.hibernate.id.PostInsertIdentifierGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+
+import br.com.arsmachina.dao.hibernate.dialect.IdentityReservingDialect;
+import br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect;
+import br.com.arsmachina.dao.hibernate.dialect.ReturningDialect;
+import br.com.arsmachina.dao.hibernate.dialect.UpsertDialect;
+
+/**
+ * Inserts or upserts objects of an entity class using multi-row statements generated by a
+ * {@link MultiRowInsertDialect} or an {@link UpsertDialect}. The columns are taken from the
+ * entity persister, so only entities mapped to a single table and without subclasses are
+ * supported. Collections are not written. When inserting, ids generated before the insert are
+ * generated and bound as usual. Ids generated by the database are reserved before the insert
+ * and bound explicitly if the dialect is an {@link IdentityReservingDialect}. Otherwise, they
+ * are only read back if the dialect is a {@link ReturningDialect}. In this case, the objects
+ * are inserted by single-row statements executed as JDBC batches, so each id is read from the
+ * statement of its own row instead of depending on the order of the rows returned by a
+ * multi-row statement. When upserting, the objects must have ids and only the last object with
+ * each id is written.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the entity class.
+ */
+final class MultiRowInserter<T> {
+
+	final private AbstractEntityPersister persister;
+
+	final private boolean generatedByInsert;
+
+	final private int[] properties;
+
+	final private String[] insertColumns;
+
+	final private String[] upsertColumns;
+
+	final private int[] upsertTypes;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param persister an {@link AbstractEntityPersister}. It cannot be null.
+	 */
+	MultiRowInserter(AbstractEntityPersister persister) {
+
+		assert persister != null;
+
+		if (persister.isMultiTable() || persister.isInherited()
+				|| persister.getEntityMetamodel().getSubclassEntityNames().size() > 1) {
+			throw new IllegalStateException("Entity " + persister.getEntityName()
+					+ " is not mapped to a single table");
+		}
+
+		this.persister = persister;
+
+		generatedByInsert =
+			persister.getIdentifierGenerator() instanceof PostInsertIdentifierGenerator;
+
+		final List<String> columns = new ArrayList<String>();
+		final List<Integer> sqlTypes = new ArrayList<Integer>();
+		final List<Integer> propertyList = new ArrayList<Integer>();
+		final boolean[] insertability = persister.getPropertyInsertability();
+		final Type[] types = persister.getPropertyTypes();
+
+		for (String column : persister.getIdentifierColumnNames()) {
+			columns.add(column);
+		}
+
+		for (int sqlType : persister.getIdentifierType().sqlTypes(persister.getFactory())) {
+			sqlTypes.add(sqlType);
+		}
+
+		for (int i = 0; i < types.length; i++) {
+
+			if (insertability[i] && types[i].isCollectionType() == false) {
+
+				propertyList.add(i);
+
+				for (String column : persister.getPropertyColumnNames(i)) {
+					columns.add(column);
+				}
+
+				for (int sqlType : types[i].sqlTypes(persister.getFactory())) {
+					sqlTypes.add(sqlType);
+				}
+
+			}
+
+		}
+
+		upsertColumns = columns.toArray(new String[columns.size()]);
+		upsertTypes = new int[sqlTypes.size()];
+
+		for (int i = 0; i < upsertTypes.length; i++) {
+			upsertTypes[i] = sqlTypes.get(i);
+		}
+
+		if (generatedByInsert) {
+			columns.subList(0, persister.getIdentifierColumnNames().length).clear();
+		}
+
+		insertColumns = columns.toArray(new String[columns.size()]);
+		properties = new int[propertyList.size()];
+
+		for (int i = 0; i < properties.length; i++) {
+			properties[i] = propertyList.get(i);
+		}
+
+	}
+
+	/**
+	 * Inserts a collection of objects. Full statements are prepared once and executed as JDBC
+	 * batches. The objects that do not fill a full statement are inserted by a smaller one. If
+	 * the ids are generated by the database, they are reserved first by
+	 * {@link #reserveIds(List, SessionImplementor, IdentityReservingDialect)} when the dialect
+	 * supports it. Otherwise, if they must be read back, the objects are inserted by
+	 * {@link #insertReturning(List, SessionImplementor, MultiRowInsertDialect)} instead.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @param session a {@link SessionImplementor}, usually a stateless session.
+	 * @param dialect a {@link MultiRowInsertDialect}.
+	 * @return the number of inserted objects.
+	 */
+	int insert(Collection<T> objects, SessionImplementor session, MultiRowInsertDialect dialect) {
+
+		final boolean reserved = generatedByInsert && dialect instanceof IdentityReservingDialect;
+		final String[] columns = reserved ? upsertColumns : insertColumns;
+		final int rowsPerStatement = getRowsPerStatement(dialect.getMaximumInsertRows(),
+				dialect.getMaximumParameters(), columns.length);
+		final List<T> list = new ArrayList<T>(objects);
+		final int full = list.size() / rowsPerStatement;
+		final int remainder = list.size() % rowsPerStatement;
+		final Connection connection = session.connection();
+		String sql = null;
+
+		try {
+
+			if (reserved) {
+				sql = ((IdentityReservingDialect) dialect).getReserveIdentitiesString(
+						persister.getTableName(), persister.getIdentifierColumnNames()[0]);
+				reserveIds(list, session, (IdentityReservingDialect) dialect);
+			}
+			else if (generatedByInsert && dialect instanceof ReturningDialect) {
+
+				sql = getInsertString(dialect, insertColumns, 1);
+				insertReturning(list, session, dialect);
+
+				return list.size();
+
+			}
+
+			if (full > 0) {
+
+				sql = getInsertString(dialect, columns, rowsPerStatement);
+				final PreparedStatement statement = connection.prepareStatement(sql);
+
+				try {
+
+					for (int i = 0; i < full; i++) {
+						bind(statement, list.subList(i * rowsPerStatement,
+								(i + 1) * rowsPerStatement), session, reserved);
+						statement.addBatch();
+					}
+
+					statement.executeBatch();
+
+				}
+				finally {
+					statement.close();
+				}
+
+			}
+
+			if (remainder > 0) {
+
+				sql = getInsertString(dialect, columns, remainder);
+				final PreparedStatement statement = connection.prepareStatement(sql);
+
+				try {
+					bind(statement, list.subList(list.size() - remainder, list.size()), session,
+							reserved);
+					statement.executeUpdate();
+				}
+				finally {
+					statement.close();
+				}
+
+			}
+
+		}
+		catch (SQLException e) {
+			throw JDBCExceptionHelper.convert(session.getFactory().getSQLExceptionConverter(), e,
+					"could not insert " + persister.getEntityName() + " objects", sql);
+		}
+
+		return list.size();
+
+	}
+
+	/**
+	 * Inserts a collection of objects or updates the rows with the same primary key values, one
+	 * statement for each chunk of objects. When more than one object has the same id, only the
+	 * last one is written, as a statement cannot write the same row twice. The numbers of
+	 * inserted and updated objects are only known if the dialect statements return which rows
+	 * were inserted. If the ids are generated by the database and the dialect is an
+	 * {@link IdentityReservingDialect}, its sequence is then moved past the written ids.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @param session a {@link SessionImplementor}.
+	 * @param dialect an {@link UpsertDialect}.
+	 * @return an {@link UpsertResult}.
+	 */
+	UpsertResult upsert(Collection<T> objects, SessionImplementor session, UpsertDialect dialect) {
+
+		final int rowsPerStatement = getRowsPerStatement(dialect.getMaximumUpsertRows(),
+				dialect.getMaximumParameters(), upsertColumns.length);
+		final List<T> list = deduplicate(objects);
+		final Connection connection = session.connection();
+		final String[] keyColumns = persister.getIdentifierColumnNames();
+		final boolean returning = dialect.isUpsertReturningInserted();
+		int inserted = 0;
+		int written = 0;
+		String sql = null;
+
+		try {
+
+			for (int first = 0; first < list.size(); first += rowsPerStatement) {
+
+				final List<T> rows =
+					list.subList(first, Math.min(first + rowsPerStatement, list.size()));
+
+				sql = dialect.getUpsertString(persister.getTableName(), keyColumns,
+						upsertColumns, upsertTypes, rows.size());
+				final PreparedStatement statement = connection.prepareStatement(sql);
+
+				try {
+
+					bind(statement, rows, session, true);
+
+					if (returning) {
+
+						final ResultSet resultSet = statement.executeQuery();
+
+						try {
+
+							while (resultSet.next()) {
+
+								if (resultSet.getBoolean(1)) {
+									inserted++;
+								}
+
+							}
+
+						}
+						finally {
+							resultSet.close();
+						}
+
+					}
+					else {
+						written += statement.executeUpdate();
+					}
+
+				}
+				finally {
+					statement.close();
+				}
+
+			}
+
+		}
+		catch (SQLException e) {
+			throw JDBCExceptionHelper.convert(session.getFactory().getSQLExceptionConverter(), e,
+					"could not upsert " + persister.getEntityName() + " objects", sql);
+		}
+
+		if (generatedByInsert && dialect instanceof IdentityReservingDialect
+				&& list.isEmpty() == false) {
+			advanceIds(session, (IdentityReservingDialect) dialect);
+		}
+
+		if (returning) {
+			return new UpsertResult(inserted, list.size() - inserted);
+		}
+
+		return new UpsertResult(written);
+
+	}
+
+	/**
+	 * Returns the objects with distinct ids, keeping the last object with each id in the
+	 * position of its last occurrence.
+	 */
+	private List<T> deduplicate(Collection<T> objects) {
+
+		final Map<Serializable, T> map = new LinkedHashMap<Serializable, T>();
+
+		for (T object : objects) {
+			final Serializable id = getId(object);
+			map.remove(id);
+			map.put(id, object);
+		}
+
+		return new ArrayList<T>(map.values());
+
+	}
+
+	/**
+	 * Returns the number of rows of a statement, given the limits of a dialect.
+	 */
+	private static int getRowsPerStatement(int maximumRows, int maximumParameters, int columns) {
+		return Math.max(1, Math.min(maximumRows, maximumParameters / columns));
+	}
+
+	/**
+	 * Returns the insert statement of some columns for a given number of rows.
+	 */
+	private String getInsertString(MultiRowInsertDialect dialect, String[] columns, int rows) {
+		return dialect.getMultiRowInsertString(persister.getTableName(), columns, rows);
+	}
+
+	/**
+	 * Reserves one value of the sequence of the identity column for each object, with a single
+	 * query, and sets them in the objects, which can then be inserted with explicit ids.
+	 */
+	private void reserveIds(List<T> list, SessionImplementor session,
+			IdentityReservingDialect dialect) throws SQLException {
+
+		if (list.isEmpty()) {
+			return;
+		}
+
+		final PreparedStatement statement = session.connection().prepareStatement(
+				dialect.getReserveIdentitiesString(persister.getTableName(),
+						persister.getIdentifierColumnNames()[0]));
+
+		try {
+			statement.setInt(1, list.size());
+			readIds(statement.executeQuery(), list);
+		}
+		finally {
+			statement.close();
+		}
+
+	}
+
+	/**
+	 * Moves the sequence of the identity column past the ids written explicitly.
+	 */
+	private void advanceIds(SessionImplementor session, IdentityReservingDialect dialect) {
+
+		final String sql = dialect.getAdvanceIdentityString(persister.getTableName(),
+				persister.getIdentifierColumnNames()[0]);
+
+		try {
+
+			final PreparedStatement statement = session.connection().prepareStatement(sql);
+
+			try {
+				statement.executeQuery().close();
+			}
+			finally {
+				statement.close();
+			}
+
+		}
+		catch (SQLException e) {
+			throw JDBCExceptionHelper.convert(session.getFactory().getSQLExceptionConverter(), e,
+					"could not advance the identity of " + persister.getEntityName(), sql);
+		}
+
+	}
+
+	/**
+	 * Inserts objects whose ids are generated by the database with a single-row statement
+	 * executed as JDBC batches of at most {@link MultiRowInsertDialect#getMaximumInsertRows()}
+	 * rows and sets the generated keys of each batch in its objects.
+	 */
+	private void insertReturning(List<T> list, SessionImplementor session,
+			MultiRowInsertDialect dialect) throws SQLException {
+
+		final int batchSize = Math.max(1, dialect.getMaximumInsertRows());
+		final String sql = getInsertString(dialect, insertColumns, 1);
+		final PreparedStatement statement;
+
+		if (((ReturningDialect) dialect).isReturningGeneratedKeys()) {
+			statement = session.connection().prepareStatement(sql,
+					Statement.RETURN_GENERATED_KEYS);
+		}
+		else {
+			statement = session.connection().prepareStatement(sql,
+					persister.getIdentifierColumnNames());
+		}
+
+		try {
+
+			for (int first = 0; first < list.size(); first += batchSize) {
+
+				final List<T> rows =
+					list.subList(first, Math.min(first + batchSize, list.size()));
+
+				for (int i = 0; i < rows.size(); i++) {
+					bind(statement, rows.subList(i, i + 1), session, false);
+					statement.addBatch();
+				}
+
+				statement.executeBatch();
+				readIds(statement.getGeneratedKeys(), rows);
+
+			}
+
+		}
+		finally {
+			statement.close();
+		}
+
+	}
+
+	/**
+	 * Binds the values of some objects to a statement. Unless <code>explicitIds</code> is
+	 * <code>true</code>, the ids are generated if they are not generated by the database. The
+	 * versions are seeded if needed.
+	 */
+	private void bind(PreparedStatement statement, List<T> rows, SessionImplementor session,
+			boolean explicitIds) throws SQLException {
+
+		final Type[] types = persister.getPropertyTypes();
+		int index = 1;
+
+		for (T object : rows) {
+
+			Serializable id = null;
+
+			if (explicitIds) {
+				id = getId(object);
+			}
+			else if (generatedByInsert == false) {
+				id = persister.getIdentifierGenerator().generate(session, object);
+				persister.setIdentifier(object, id, EntityMode.POJO);
+			}
+
+			if (id != null) {
+				persister.getIdentifierType().nullSafeSet(statement, id, index, session);
+				index += persister.getIdentifierColumnNames().length;
+			}
+
+			final Object[] values = persister.getPropertyValues(object, EntityMode.POJO);
+
+			if (persister.isVersioned()
+					&& Versioning.seedVersion(values, persister.getVersionProperty(),
+							persister.getVersionType(), session)) {
+				persister.setPropertyValues(object, values, EntityMode.POJO);
+			}
+
+			for (int property : properties) {
+				types[property].nullSafeSet(statement, values[property], index, session);
+				index += persister.getPropertyColumnNames(property).length;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Returns the id of an object to be upserted.
+	 */
+	private Serializable getId(T object) {
+
+		final Serializable id = persister.getIdentifier(object, EntityMode.POJO);
+
+		if (id == null) {
+			throw new IllegalArgumentException("Objects to be upserted must have ids");
+		}
+
+		return id;
+
+	}
+
+	/**
+	 * Reads one id per row of a result set, such as the generated keys of a batch of single-row
+	 * statements in the order the statements were added, sets them in the objects and closes
+	 * the result set.
+	 */
+	private void readIds(ResultSet resultSet, List<T> rows) throws SQLException {
+
+		try {
+
+			for (T object : rows) {
+
+				if (resultSet.next() == false) {
+					throw new IllegalStateException("Fewer ids returned than inserted rows");
+				}
+
+				final Serializable id =
+					IdentifierGeneratorFactory.get(resultSet, persister.getIdentifierType());
+				persister.setIdentifier(object, id, EntityMode.POJO);
+
+			}
+
+		}
+		finally {
+			resultSet.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.hibernate.impl.CriteriaImpl;
+
+/**
+ * Query cache configuration of a DAO: the cache region, the operations whose queries are
+ * cacheable and how long cached results live. The query cache itself must be enabled through
+ * the <code>hibernate.cache.use_query_cache</code> property. The same instance should be used by
+ * the {@link ReadableDAOImpl} and the {@link WriteableDAOImpl} of an entity class, so writes
+ * evict the cached queries. Each DAO must have its own region, so these evictions do not affect
+ * the queries of other entity classes. When a time to live is given, a query whose results are
+ * older than it is executed again and its results replace the cached ones, without evicting the
+ * other queries of the region.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class QueryCacheSettings {
+
+	/**
+	 * Maximum number of queries whose caching time is tracked for the time to live. When it is
+	 * reached, the tracked times are discarded and each query is refreshed on its next execution.
+	 */
+	final public static int MAXIMUM_TRACKED_QUERIES = 1024;
+
+	final private String region;
+
+	final private long timeToLive;
+
+	final private Set<DAOOperation> operations;
+
+	final private ConcurrentHashMap<String, Long> cachingTimes =
+		new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param region a {@link String} containing the query cache region name. It cannot be null
+	 * and should not be shared with other DAOs.
+	 * @param timeToLive the maximum age of cached results, in milliseconds. Zero means the
+	 * results are only evicted by writes.
+	 * @param operations the cacheable {@link DAOOperation}s. At least one must be given.
+	 */
+	public QueryCacheSettings(String region, long timeToLive, DAOOperation... operations) {
+
+		if (region == null) {
+			throw new IllegalArgumentException("Parameter region cannot be null");
+		}
+
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Parameter timeToLive cannot be negative");
+		}
+
+		if (operations == null || operations.length == 0) {
+			throw new IllegalArgumentException("At least one operation must be given");
+		}
+
+		this.region = region;
+		this.timeToLive = timeToLive;
+		this.operations = EnumSet.copyOf(Arrays.asList(operations));
+
+	}
+
+	/**
+	 * Returns <code>true</code> if the queries of a given operation are cacheable.
+	 * 
+	 * @param operation a {@link DAOOperation}.
+	 * @return a <code>boolean</code>.
+	 */
+	public boolean isCacheable(DAOOperation operation) {
+		return operations.contains(operation);
+	}
+
+	/**
+	 * Marks a {@link Criteria} as cacheable in the configured region if the given operation is
+	 * cacheable. If the time to live has elapsed since the results of the same query were
+	 * cached, the criteria refreshes them instead of reading them from the cache.
+	 * 
+	 * @param criteria a {@link Criteria}. It cannot be null.
+	 * @param operation a {@link DAOOperation}.
+	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 */
+	public void apply(Criteria criteria, DAOOperation operation, SessionFactory sessionFactory) {
+
+		if (isCacheable(operation)) {
+
+			criteria.setCacheable(true);
+			criteria.setCacheRegion(region);
+
+			if (timeToLive > 0 && isExpired(getQueryKey(criteria, operation))) {
+				criteria.setCacheMode(CacheMode.REFRESH);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Evicts all the cached query results in the configured region.
+	 * 
+	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 */
+	public void evict(SessionFactory sessionFactory) {
+
+		sessionFactory.evictQueries(region);
+		cachingTimes.clear();
+
+	}
+
+	/**
+	 * Returns <code>true</code> if the results of a given query were not cached by this object
+	 * or were cached more than {@link #getTimeToLive()} milliseconds ago. In this case, the
+	 * current time is recorded as the new caching time of the query.
+	 * 
+	 * @param key a {@link String} identifying the query.
+	 * @return a <code>boolean</code>.
+	 */
+	private boolean isExpired(String key) {
+
+		final long now = System.currentTimeMillis();
+		final Long cachingTime = cachingTimes.get(key);
+
+		if (cachingTime != null && now - cachingTime <= timeToLive) {
+			return false;
+		}
+
+		if (cachingTime == null && cachingTimes.size() >= MAXIMUM_TRACKED_QUERIES) {
+			cachingTimes.clear();
+		}
+
+		// only one of the concurrent executions of an expired query refreshes it
+		if (cachingTime == null) {
+			return cachingTimes.putIfAbsent(key, now) == null;
+		}
+		else {
+			return cachingTimes.replace(key, cachingTime, now);
+		}
+
+	}
+
+	/**
+	 * Returns a {@link String} identifying the query of a {@link Criteria}: its entity,
+	 * restrictions, projection, orders and paging.
+	 * 
+	 * @param criteria a {@link Criteria}. It cannot be null.
+	 * @param operation a {@link DAOOperation}.
+	 * @return a {@link String}.
+	 */
+	private static String getQueryKey(Criteria criteria, DAOOperation operation) {
+
+		final StringBuilder builder = new StringBuilder(operation.name());
+		builder.append(' ');
+		builder.append(criteria);
+
+		if (criteria instanceof CriteriaImpl) {
+
+			final CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
+			final Iterator<?> orderings = criteriaImpl.iterateOrderings();
+
+			while (orderings.hasNext()) {
+				builder.append(' ');
+				builder.append(orderings.next());
+			}
+
+			builder.append(' ');
+			builder.append(criteriaImpl.getFirstResult());
+			builder.append(' ');
+			builder.append(criteriaImpl.getMaxResults());
+
+		}
+
+		return builder.toString();
+
+	}
+
+	/**
+	 * Returns the value of the <code>region</code> property.
+	 * 
+	 * @return a {@link String}.
+	 */
+	public String getRegion() {
+		return region;
+	}
+
+	/**
+	 * Returns the value of the <code>timeToLive</code> property.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+}
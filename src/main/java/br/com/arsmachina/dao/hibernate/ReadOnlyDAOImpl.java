@@ -0,0 +1,60 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.io.Serializable;
+
+import org.hibernate.SessionFactory;
+
+/**
+ * {@link ReadableDAOImpl} that is always in read-only mode: every object it returns is
+ * read-only in the session, so Hibernate keeps no state snapshot for it and never checks it for
+ * changes when the session is flushed. It is meant for reporting and other paths that never
+ * change the objects they read.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the entity class related to this DAO.
+ * @param <K> the type of the field that represents the entity class' primary key.
+ * @see ReadableDAOImpl#setReadOnly(boolean)
+ */
+public class ReadOnlyDAOImpl<T, K extends Serializable> extends ReadableDAOImpl<T, K> {
+
+	/**
+	 * Single constructor.
+	 * 
+	 * @param clasz the entity class. It cannot be null.
+	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 */
+	public ReadOnlyDAOImpl(Class<T> clasz, SessionFactory sessionFactory) {
+		super(clasz, sessionFactory);
+		super.setReadOnly(true);
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException} if <code>readOnly</code> is
+	 * <code>false</code>.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.ReadableDAOImpl#setReadOnly(boolean)
+	 */
+	@Override
+	public void setReadOnly(boolean readOnly) {
+
+		if (readOnly == false) {
+			throw new UnsupportedOperationException("ReadOnlyDAOImpl is always read-only");
+		}
+
+	}
+
+}
@@ -15,20 +15,60 @@
 package br.com.arsmachina.dao.hibernate;
 
 import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
+import org.hibernate.FetchMode;
+import org.hibernate.FlushMode;
 import org.hibernate.LockMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cache.CacheKey;
 import org.hibernate.classic.Session;
-import org.hibernate.criterion.Example;
-import org.hibernate.criterion.MatchMode;
+import org.hibernate.collection.PersistentCollection;
+import org.hibernate.criterion.Conjunction;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.AbstractComponentType;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.Type;
 
 import br.com.arsmachina.dao.ReadableDAO;
 import br.com.arsmachina.dao.SortCriterion;
+import br.com.arsmachina.dao.hibernate.stream.Publisher;
 
 /**
  * {@link ReadableDAO} implementation using Hibernate. All methods use {@link #getSession()} to get
@@ -46,153 +86,1915 @@ public abstract class ReadableDAOImpl<T, K extends Serializable> extends BaseHib
 	 */
 	final public static SortCriterion[] EMPTY_SORTING_CRITERIA = new SortCriterion[0];
 
+	/**
+	 * Default number of rows fetched by the JDBC driver in each round trip in
+	 * {@link #iterate(Criteria)}.
+	 */
+	final public static int DEFAULT_FETCH_SIZE = 100;
+
+	/**
+	 * Default number of objects returned by {@link #iterate(Criteria)} between evictions of the
+	 * already returned ones from the session.
+	 */
+	final public static int DEFAULT_CLEAR_INTERVAL = 100;
+
+	/**
+	 * Marker returned by {@link #copyValue(Type, Object)} for values that cannot be cached.
+	 */
+	final private static Object NOT_CACHEABLE = new Object();
+
 	final private String defaultHqlOrderBy = toHqlOrderBy(getDefaultSortCriteria());
 
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	private int clearInterval = DEFAULT_CLEAR_INTERVAL;
+
+	private boolean readOnly;
+
+	/**
+	 * Returns a HQL <code>order by</code> clause given some {@link SortCriterion}s.
+	 * 
+	 * @param sortCriteria {@link SortCriterion} instances.
+	 * @return a {@link String}.
+	 */
+	final public static String toHqlOrderBy(SortCriterion... sortCriteria) {
+
+		String string = "";
+
+		if (sortCriteria.length > 0) {
+
+			StringBuilder builder = new StringBuilder(" ORDER BY ");
+
+			for (int i = 0; i < sortCriteria.length; i++) {
+
+				if (i > 0) {
+					builder.append(", ");
+				}
+
+				builder.append(sortCriteria[i].getProperty());
+				builder.append(sortCriteria[i].isAscending() ? " ASC" : " DESC");
+
+			}
+
+			string = builder.toString();
+
+		}
+
+		return string;
+
+	}
+
+	/**
+	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
+	 * 
+	 * @param clasz a {@link Class}.
+	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 */
+	@SuppressWarnings("unchecked")
+	public ReadableDAOImpl(SessionFactory sessionFactory) {
+		super(null, sessionFactory);
+	}
+
+	/**
+	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
+	 * 
+	 * @param clasz a {@link Class}.
+	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 */
+	@SuppressWarnings("unchecked")
+	public ReadableDAOImpl(Class<T> clasz, SessionFactory sessionFactory) {
+		super(clasz, sessionFactory);
+	}
+
+	/**
+	 * If a {@link CountStrategy} was set, this method delegates to it. Otherwise, it returns
+	 * {@link #countAllExactly()}.
+	 * 
+	 * @see br.com.arsmachina.dao.ReadableDAO#countAll()
+	 * @see #setCountStrategy(CountStrategy)
+	 */
+	public int countAll() {
+
+		final long start = operationStarted(DAOOperation.COUNT_ALL);
+		final CountStrategy countStrategy = getCountStrategy();
+		Throwable failure = null;
+
+		try {
+			return countStrategy != null ? countStrategy.countAll(this) : countAllExactly();
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.COUNT_ALL, start, 1, failure, null);
+		}
+
+	}
+
+	/**
+	 * Returns the exact number of objects of the entity class using a
+	 * <code>select count(*)</code> query.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int countAllExactly() {
+
+		final Criteria criteria = createCriteria();
+
+		criteria.setProjection(Projections.rowCount());
+		applyQueryCache(criteria, DAOOperation.COUNT_ALL);
+
+		return (Integer) criteria.uniqueResult();
+
+	}
+
+	/**
+	 * Returns all the entity class' objects. They are sorted according to
+	 * {@link #getDefaultSortCriterions()}.
+	 * 
+	 * @see br.com.arsmachina.dao.ReadableDAO#findAll()
+	 * @see #getDefaultSortCriterions()
+	 */
+	public List<T> findAll() {
+		return findAll(readOnly);
+	}
+
+	/**
+	 * Returns all the entity class' objects in read-only mode, as if {@link #isReadOnly()} was
+	 * <code>true</code>.
+	 * 
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findAll()
+	 * @see #setReadOnly(boolean)
+	 */
+	public List<T> findAllReadOnly() {
+		return findAll(true);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> findAll(boolean readOnly) {
+
+		final long start = operationStarted(DAOOperation.FIND_ALL);
+		Criteria criteria = null;
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			criteria = createCriteria();
+			addSortCriteria(criteria, getDefaultSortCriteria());
+			applyQueryCache(criteria, DAOOperation.FIND_ALL);
+			prepareRead(criteria, readOnly);
+			result = criteria.list();
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_ALL, start, size(result), failure, criteria);
+		}
+
+	}
+
+	/**
+	 * Returns an iterator over all the entity class' objects sorted by the given
+	 * {@link SortCriterion}s or by {@link #getDefaultSortCriteria()} if none is given. Differently
+	 * from {@link #findAll()}, the objects are not loaded at once, so this method can be used
+	 * to process tables of any size. The returned iterator must be closed if the iteration is not
+	 * carried out to its end. Changes made to the iterated objects are handled as described in
+	 * {@link #iterate(Criteria)}.
+	 * 
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link CloseableIterator}.
+	 * @see #iterate(Criteria)
+	 */
+	public CloseableIterator<T> iterateAll(SortCriterion... sortCriteria) {
+		return iterate(createCriteria(sortCriteria));
+	}
+
+	/**
+	 * Returns an iterator over the results of a given {@link Criteria}. The rows are read from a
+	 * forward-only cursor, {@link #getFetchSize()} rows at a time, and each
+	 * {@link #getClearInterval()} returned objects the entities and collections loaded since the
+	 * iteration started, including associated ones, are evicted from the session, so memory
+	 * usage does not depend on the number of rows. The second-level cache
+	 * is ignored for the same reason. The returned iterator must be closed if the iteration is
+	 * not carried out to its end. Unless this DAO is read-only or the session flush mode is manual, the session is flushed
+	 * before each eviction, so changes made to the iterated objects are written. In read-only
+	 * mode or with manual flushing, the iterated objects must not be modified, as their changes
+	 * are discarded when they are evicted.
+	 * 
+	 * @param criteria a {@link Criteria} created by this DAO. It cannot be null.
+	 * @return a {@link CloseableIterator}.
+	 */
+	public CloseableIterator<T> iterate(Criteria criteria) {
+
+		if (criteria == null) {
+			throw new IllegalArgumentException("Parameter criteria cannot be null");
+		}
+
+		criteria.setFetchSize(fetchSize);
+		criteria.setCacheMode(CacheMode.IGNORE);
+		prepareRead(criteria, readOnly);
+
+		return new ScrollableResultsIterator<T>(criteria.scroll(ScrollMode.FORWARD_ONLY),
+				getSession(), clearInterval, readOnly);
+
+	}
+
+	/**
+	 * Returns a {@link Publisher} of all the entity class' objects sorted by the given
+	 * {@link SortCriterion}s or by {@link #getDefaultSortCriteria()} if none is given. Each
+	 * subscriber gets its own {@link StatelessSession}, from which rows are read on demand using
+	 * a forward-only cursor, {@link #getFetchSize()} rows at a time. The session is closed as
+	 * soon as the last object is sent, an error happens or the subscription is cancelled. As the
+	 * objects are read by a stateless session, their lazy associations cannot be initialized.
+	 * 
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link Publisher}.
+	 * @see #publishByExample(Object, SortCriterion...)
+	 */
+	public Publisher<T> publishAll(SortCriterion... sortCriteria) {
+		return publishByExample(null, sortCriteria);
+	}
+
+	/**
+	 * Returns a {@link Publisher} of the objects that match a given example, as in
+	 * {@link #findByExample(Object)}, sorted by the given {@link SortCriterion}s or by
+	 * {@link #getDefaultSortCriteria()} if none is given.
+	 * 
+	 * @param example a <code>T</code> or <code>null</code> to publish all objects.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link Publisher}.
+	 * @see #publishAll(SortCriterion...)
+	 */
+	public Publisher<T> publishByExample(T example, SortCriterion... sortCriteria) {
+		return new CriteriaPublisher<T>(this, example, sortCriteria);
+	}
+
+	/**
+	 * Creates the {@link Criteria} read by the publishers returned by
+	 * {@link #publishByExample(Object, SortCriterion...)}.
+	 * 
+	 * @param session a {@link StatelessSession}.
+	 * @param example a <code>T</code> or <code>null</code>.
+	 * @param sortCriteria a {@link SortCriterion} array or <code>null</code>.
+	 * @return a {@link Criteria}.
+	 */
+	protected Criteria createStreamCriteria(StatelessSession session, T example,
+			SortCriterion... sortCriteria) {
+
+		final Criteria criteria = session.createCriteria(getEntityClass());
+
+		if (example != null) {
+			criteria.add(createExample(example));
+		}
+
+		if (sortCriteria == null || sortCriteria.length == 0) {
+			sortCriteria = getDefaultSortCriteria();
+		}
+
+		addSortCriteria(criteria, sortCriteria);
+		criteria.setFetchSize(fetchSize);
+
+		return criteria;
+
+	}
+
+	/**
+	 * Reads all the entity class' objects using <code>partitions</code> threads of a new fixed
+	 * thread pool, which is shut down at the end.
+	 * 
+	 * @param partitions the number of partitions. It must be greater than zero.
+	 * @param consumer an {@link EntityConsumer}. It cannot be null.
+	 * @return the number of objects read.
+	 * @see #scan(int, ExecutorService, EntityConsumer)
+	 */
+	public long scan(int partitions, EntityConsumer<T> consumer) {
+
+		if (partitions <= 0) {
+			throw new IllegalArgumentException("Parameter partitions must be greater than zero");
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(partitions);
+
+		try {
+			return scan(partitions, executor, consumer);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+	}
+
+	/**
+	 * Reads all the entity class' objects in parallel. The range between the minimum and the
+	 * maximum primary key values is split into <code>partitions</code> ranges of the same size,
+	 * and each one is read by a task submitted to <code>executor</code> using its own
+	 * {@link StatelessSession} and a forward-only cursor. The objects are passed to
+	 * <code>consumer</code> as soon as they are read, concurrently and in no particular order.
+	 * The primary key must be of an integral type, such as {@link Integer} or {@link Long}. If a
+	 * partition fails, the other ones are cancelled and the exception is rethrown. A partition
+	 * whose thread is interrupted, for example by {@link ExecutorService#shutdownNow()}, fails
+	 * too, so a partial count is never returned.
+	 * 
+	 * @param partitions the number of partitions. It must be greater than zero.
+	 * @param executor an {@link ExecutorService}. It cannot be null. It should not have more
+	 * threads than the size of the connection pool.
+	 * @param consumer an {@link EntityConsumer}. It cannot be null.
+	 * @return the number of objects read.
+	 * @throws IllegalStateException if the scan is interrupted.
+	 */
+	public long scan(int partitions, ExecutorService executor, final EntityConsumer<T> consumer) {
+
+		if (partitions <= 0) {
+			throw new IllegalArgumentException("Parameter partitions must be greater than zero");
+		}
+
+		if (executor == null) {
+			throw new IllegalArgumentException("Parameter executor cannot be null");
+		}
+
+		if (consumer == null) {
+			throw new IllegalArgumentException("Parameter consumer cannot be null");
+		}
+
+		final Object[][] ranges = createScanRanges(partitions);
+		final List<Future<Long>> futures = new ArrayList<Future<Long>>(ranges.length);
+
+		try {
+
+			for (int i = 0; i < ranges.length; i++) {
+
+				final Object lower = ranges[i][0];
+				final Object upper = ranges[i][1];
+				final boolean last = i == ranges.length - 1;
+
+				futures.add(executor.submit(new Callable<Long>() {
+
+					public Long call() {
+						return scan(lower, upper, last, consumer);
+					}
+
+				}));
+
+			}
+
+			long count = 0;
+
+			for (Future<Long> future : futures) {
+				count += future.get();
+			}
+
+			return count;
+
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Scan interrupted", e);
+		}
+		catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new IllegalStateException("Scan failed", cause);
+
+		}
+		finally {
+
+			for (Future<Long> future : futures) {
+				future.cancel(true);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Reads the objects with primary key values between <code>lower</code> (inclusive) and
+	 * <code>upper</code>.
+	 * 
+	 * @param lower the lower bound.
+	 * @param upper the upper bound.
+	 * @param inclusive if <code>true</code>, <code>upper</code> is inclusive.
+	 * @param consumer an {@link EntityConsumer}.
+	 * @return the number of objects read.
+	 */
+	@SuppressWarnings("unchecked")
+	private long scan(Object lower, Object upper, boolean inclusive, EntityConsumer<T> consumer) {
+
+		final String primaryKey = getPrimaryKeyPropertyName();
+		final StatelessSession session = getSessionFactory().openStatelessSession();
+
+		try {
+
+			final Transaction transaction = session.beginTransaction();
+
+			try {
+
+				final Criteria criteria = session.createCriteria(getEntityClass());
+				criteria.add(Restrictions.ge(primaryKey, lower));
+				criteria.add(inclusive ? Restrictions.le(primaryKey, upper) : Restrictions.lt(
+						primaryKey, upper));
+				criteria.setFetchSize(fetchSize);
+
+				final ScrollableResults results = criteria.scroll(ScrollMode.FORWARD_ONLY);
+				long count = 0;
+
+				try {
+
+					while (Thread.currentThread().isInterrupted() == false && results.next()) {
+						consumer.consume((T) results.get(0));
+						count++;
+					}
+
+				}
+				finally {
+					results.close();
+				}
+
+				if (Thread.currentThread().isInterrupted()) {
+					throw new IllegalStateException("Scan interrupted after " + count + " objects");
+				}
+
+				transaction.commit();
+
+				return count;
+
+			}
+			finally {
+
+				if (transaction.isActive()) {
+					transaction.rollback();
+				}
+
+			}
+
+		}
+		finally {
+			session.close();
+		}
+
+	}
+
+	/**
+	 * Splits the range between the minimum and maximum primary key values into at most
+	 * <code>partitions</code> ranges. Each element of the returned array contains the lower and
+	 * upper bounds of one range, using the primary key type.
+	 * 
+	 * @param partitions an <code>int</code>.
+	 * @return an {@link Object} matrix, empty if there are no objects.
+	 */
+	private Object[][] createScanRanges(int partitions) {
+
+		final Class<?> type = getClassMetadata().getIdentifierType().getReturnedClass();
+
+		if (type != Long.class && type != Integer.class && type != Short.class
+				&& type != Byte.class && type != BigInteger.class) {
+			throw new IllegalStateException("Partitioned scans require an integral primary key, "
+					+ "not " + type.getName());
+		}
+
+		final String primaryKey = getPrimaryKeyPropertyName();
+		final Object[] bounds;
+		final StatelessSession session = getSessionFactory().openStatelessSession();
+
+		try {
+
+			final Criteria criteria = session.createCriteria(getEntityClass());
+			criteria.setProjection(Projections.projectionList()
+					.add(Projections.min(primaryKey))
+					.add(Projections.max(primaryKey)));
+			bounds = (Object[]) criteria.uniqueResult();
+
+		}
+		finally {
+			session.close();
+		}
+
+		if (bounds == null || bounds[0] == null) {
+			return new Object[0][];
+		}
+
+		final BigInteger minimum = toBigInteger(bounds[0]);
+		final BigInteger maximum = toBigInteger(bounds[1]);
+		final BigInteger size = maximum.subtract(minimum).add(BigInteger.ONE);
+		final BigInteger count = size.min(BigInteger.valueOf(partitions));
+		final Object[][] ranges = new Object[count.intValue()][];
+
+		for (int i = 0; i < ranges.length; i++) {
+
+			final BigInteger lower =
+				minimum.add(size.multiply(BigInteger.valueOf(i)).divide(count));
+			final BigInteger upper = i == ranges.length - 1 ? maximum
+					: minimum.add(size.multiply(BigInteger.valueOf(i + 1)).divide(count));
+
+			ranges[i] = new Object[] { toIdentifier(lower, type), toIdentifier(upper, type) };
+
+		}
+
+		return ranges;
+
+	}
+
+	private static BigInteger toBigInteger(Object value) {
+		return value instanceof BigInteger ? (BigInteger) value
+				: BigInteger.valueOf(((Number) value).longValue());
+	}
+
+	private static Object toIdentifier(BigInteger value, Class<?> type) {
+
+		if (type == Long.class) {
+			return value.longValue();
+		}
+		else if (type == Integer.class) {
+			return value.intValue();
+		}
+		else if (type == Short.class) {
+			return value.shortValue();
+		}
+		else if (type == Byte.class) {
+			return value.byteValue();
+		}
+
+		return value;
+
+	}
+
+	/**
+	 * If an {@link EntityCache} was set and the object is not in the current session, the
+	 * cache is checked before the database is queried. Objects returned from the entity cache are
+	 * detached copies, so changes to them must be saved using
+	 * {@link WriteableDAOImpl#update(Object)}.
+	 * 
+	 * @see br.com.arsmachina.dao.ReadableDAO#findById(java.io.Serializable)
+	 * @see #setEntityCache(EntityCache)
+	 */
+	@SuppressWarnings("unchecked")
+	public T findById(K id) {
+
+		final long start = operationStarted(DAOOperation.FIND_BY_ID);
+		T object = null;
+		Throwable failure = null;
+
+		try {
+
+			if (getEntityCache() == null || id == null) {
+
+				object = (T) getSession().get(getEntityClass(), id);
+
+				if (readOnly) {
+					makeReadOnly(object);
+				}
+
+				return object;
+
+			}
+
+			object = findInSession(id);
+
+			if (object == null) {
+
+				object = findCached(id);
+
+				if (object == null) {
+
+					object = (T) getSession().get(getEntityClass(), id);
+
+					if (object != null) {
+
+						cache(id, object);
+
+						if (readOnly) {
+							makeReadOnly(object);
+						}
+
+					}
+
+				}
+
+			}
+
+			return object;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_BY_ID, start, object != null ? 1 : 0, failure,
+					null, id);
+		}
+
+	}
+
+	/**
+	 * Returns the objects with the given primary key values in the same order as
+	 * <code>ids</code>. Objects already in the current session or in the second-level cache are
+	 * not read from the database again. The other ones are read using one query for each
+	 * {@link #getMaximumInListSize()} ids. Repeated and <code>null</code> ids are ignored and ids
+	 * without a corresponding object are skipped.
+	 * 
+	 * @see br.com.arsmachina.dao.ReadableDAO#findByIds(K[])
+	 * @see #partitionIds(java.util.Collection)
+	 */
+	public List<T> findByIds(K... ids) {
+		return findByIds(readOnly, ids);
+	}
+
+	/**
+	 * Returns the objects with the given primary key values in read-only mode, as if
+	 * {@link #isReadOnly()} was <code>true</code>. The objects already in the current session
+	 * are made read-only too. The copies built from {@link #getEntityCache()} are not in the
+	 * session, so they are never checked for changes.
+	 * 
+	 * @param ids a <code>K...</code>.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findByIds(Serializable...)
+	 * @see #setReadOnly(boolean)
+	 */
+	public List<T> findByIdsReadOnly(K... ids) {
+		return findByIds(true, ids);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> findByIds(boolean readOnly, K... ids) {
+
+		if (ids == null || ids.length == 0) {
+			return new ArrayList<T>();
+		}
+
+		final long start = operationStarted(DAOOperation.FIND_BY_IDS);
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			final Set<K> distinctIds = new LinkedHashSet<K>(Arrays.asList(ids));
+			distinctIds.remove(null);
+
+			final Map<K, T> objects = new HashMap<K, T>(distinctIds.size() * 2);
+			final List<K> missingIds = new ArrayList<K>();
+
+			for (K id : distinctIds) {
+
+				T object = findLoaded(id);
+
+				if (object == null) {
+					object = findCached(id);
+				}
+
+				if (object != null) {
+					objects.put(id, object);
+				}
+				else {
+					missingIds.add(id);
+				}
+
+			}
+
+			for (Object[] chunk : partitionIds(missingIds)) {
+
+				Criteria criteria = createCriteria();
+				criteria.add(Restrictions.in(getPrimaryKeyPropertyName(), chunk));
+				applyQueryCache(criteria, DAOOperation.FIND_BY_IDS);
+				prepareRead(criteria, readOnly);
+
+				for (T object : (List<T>) criteria.list()) {
+
+					final K id = getIdentifier(object);
+					objects.put(id, object);
+					cache(id, object);
+
+				}
+
+			}
+
+			result = new ArrayList<T>(objects.size());
+
+			for (K id : distinctIds) {
+
+				final T object = objects.get(id);
+
+				if (object != null) {
+					result.add(object);
+				}
+
+			}
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_BY_IDS, start, size(result), failure, null,
+					(Object[]) ids);
+		}
+
+	}
+
+	/**
+	 * Returns all the entity class' objects, sorted according to
+	 * {@link #getDefaultSortCriteria()}, together with the associations and collections of a
+	 * given {@link FetchPlan}.
+	 * 
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findAll()
+	 */
+	public List<T> findAll(FetchPlan fetchPlan) {
+		return findAll(fetchPlan, DAOOperation.FIND_ALL, -1, -1, getDefaultSortCriteria());
+	}
+
+	/**
+	 * Returns a page of the entity class' objects together with the associations and
+	 * collections of a given {@link FetchPlan}. If the plan has join paths, the primary keys of
+	 * the page are read first, so the joined rows do not affect the paging.
+	 * 
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 * @param firstResult an <code>int</code>.
+	 * @param maximumResults an <code>int</code>.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>. If none is given,
+	 * {@link #getDefaultSortCriteria()} is used.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findAll(int, int, SortCriterion...)
+	 */
+	public List<T> findAll(FetchPlan fetchPlan, int firstResult, int maximumResults,
+			SortCriterion... sortCriteria) {
+
+		if (firstResult < 0) {
+			throw new IllegalArgumentException("Parameter firstResult cannot be negative");
+		}
+
+		if (sortCriteria == null || sortCriteria.length == 0) {
+			sortCriteria = getDefaultSortCriteria();
+		}
+
+		return findAll(fetchPlan, DAOOperation.FIND_ALL_PAGED, firstResult, maximumResults,
+				sortCriteria);
+
+	}
+
+	/**
+	 * Returns the object with a given primary key value together with the associations and
+	 * collections of a given {@link FetchPlan}. The entity cache is not used. In read-only mode,
+	 * the returned object is made read-only, as in the other find methods.
+	 * 
+	 * @param id a <code>K</code>.
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 * @return a <code>T</code> or <code>null</code>.
+	 * @see #findById(Serializable)
+	 */
+	@SuppressWarnings("unchecked")
+	public T findById(K id, FetchPlan fetchPlan) {
+
+		checkFetchPlan(fetchPlan);
+
+		final long start = operationStarted(DAOOperation.FIND_BY_ID);
+		Criteria criteria = null;
+		T object = null;
+		Throwable failure = null;
+
+		try {
+
+			if (id != null) {
+
+				criteria = createCriteria();
+				criteria.add(Restrictions.idEq(id));
+				applyFetchPlan(criteria, fetchPlan);
+				prepareRead(criteria, readOnly);
+
+				final List<T> result = criteria.list();
+
+				if (result.isEmpty() == false) {
+
+					object = result.get(0);
+					fetchBatchPaths(result, fetchPlan);
+
+					if (readOnly) {
+						makeReadOnly(object);
+					}
+
+				}
+
+			}
+
+			return object;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_BY_ID, start, object != null ? 1 : 0, failure,
+					criteria, id, fetchPlan);
+		}
+
+	}
+
+	/**
+	 * Returns the objects with the given primary key values, in the same order as
+	 * <code>ids</code>, together with the associations and collections of a given
+	 * {@link FetchPlan}. Repeated and <code>null</code> ids are ignored and ids without a
+	 * corresponding object are skipped.
+	 * 
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 * @param ids a <code>K...</code>.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findByIds(Serializable...)
+	 */
+	public List<T> findByIds(FetchPlan fetchPlan, K... ids) {
+
+		checkFetchPlan(fetchPlan);
+
+		if (ids == null || ids.length == 0) {
+			return new ArrayList<T>();
+		}
+
+		final long start = operationStarted(DAOOperation.FIND_BY_IDS);
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			final Set<K> distinctIds = new LinkedHashSet<K>(Arrays.asList(ids));
+			distinctIds.remove(null);
+
+			result = findByIds(fetchPlan, distinctIds);
+			fetchBatchPaths(result, fetchPlan);
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_BY_IDS, start, size(result), failure, null,
+					fetchPlan, ids);
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> findAll(FetchPlan fetchPlan, DAOOperation operation, int firstResult,
+			int maximumResults, SortCriterion[] sortCriteria) {
+
+		checkFetchPlan(fetchPlan);
+
+		final long start = operationStarted(operation);
+		Criteria criteria = null;
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			final boolean paged = firstResult >= 0;
+
+			if (paged) {
+				criteria = createCriteria(firstResult, maximumResults, sortCriteria);
+			}
+			else {
+				criteria = createCriteria(sortCriteria);
+			}
+
+			prepareRead(criteria, readOnly);
+
+			if (paged && fetchPlan.hasJoinPaths()) {
+				criteria.setProjection(Projections.id());
+				result = findByIds(fetchPlan, (List<K>) criteria.list());
+			}
+			else {
+				applyFetchPlan(criteria, fetchPlan);
+				result = criteria.list();
+			}
+
+			fetchBatchPaths(result, fetchPlan);
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(operation, start, size(result), failure, criteria, fetchPlan,
+					firstResult, maximumResults, sortCriteria);
+		}
+
+	}
+
+	/**
+	 * Reads the objects with the given primary key values, fetching the join paths of a
+	 * {@link FetchPlan}, and returns them in the same order as <code>ids</code>. In read-only
+	 * mode, the session is not flushed before the queries.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> findByIds(FetchPlan fetchPlan, Collection<K> ids) {
+
+		final Map<K, T> objects = new HashMap<K, T>(ids.size() * 2);
+
+		for (Object[] chunk : partitionIds(ids)) {
+
+			final Criteria criteria = createCriteria();
+			criteria.add(Restrictions.in(getPrimaryKeyPropertyName(), chunk));
+			applyFetchPlan(criteria, fetchPlan);
+			prepareRead(criteria, readOnly);
+
+			for (T object : (List<T>) criteria.list()) {
+				objects.put(getIdentifier(object), object);
+			}
+
+		}
+
+		final List<T> result = new ArrayList<T>(objects.size());
+
+		for (K id : ids) {
+
+			final T object = objects.get(id);
+
+			if (object != null) {
+				result.add(object);
+			}
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Sets the fetch mode of the join paths of a {@link FetchPlan} in a {@link Criteria}. As the
+	 * joins may return the same object more than once, duplicates are removed.
+	 * 
+	 * @param criteria a {@link Criteria}. It cannot be null.
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 */
+	protected void applyFetchPlan(Criteria criteria, FetchPlan fetchPlan) {
+
+		if (fetchPlan.hasJoinPaths()) {
+
+			for (String path : fetchPlan.getJoinPaths()) {
+				criteria.setFetchMode(path, FetchMode.JOIN);
+			}
+
+			criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+
+		}
+
+	}
+
+	/**
+	 * Loads the batch paths of a {@link FetchPlan} for the given objects, which must be in the
+	 * current session, using one query for each path and each {@link #getMaximumInListSize()}
+	 * objects. The queries join-fetch the path of objects already in the session, which
+	 * initializes their uninitialized collections and associations.
+	 * 
+	 * @param objects a {@link List} of <code>T</code>. It cannot be null.
+	 * @param fetchPlan a {@link FetchPlan}. It cannot be null.
+	 */
+	protected void fetchBatchPaths(List<T> objects, FetchPlan fetchPlan) {
+
+		final String[] paths = fetchPlan.getBatchPaths();
+
+		if (paths.length == 0 || objects.isEmpty()) {
+			return;
+		}
+
+		final List<K> ids = new ArrayList<K>(objects.size());
+
+		for (T object : objects) {
+			ids.add(getIdentifier(object));
+		}
+
+		final List<Object[]> chunks = partitionIds(ids);
+
+		for (String path : paths) {
+
+			for (Object[] chunk : chunks) {
+
+				final Criteria criteria = createCriteria();
+				criteria.add(Restrictions.in(getPrimaryKeyPropertyName(), chunk));
+				criteria.setFetchMode(path, FetchMode.JOIN);
+				criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+				criteria.list();
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Checks that a {@link FetchPlan} is not null and that the first element of each of its
+	 * paths is an association or collection of the entity class.
+	 * 
+	 * @param fetchPlan a {@link FetchPlan}.
+	 */
+	private void checkFetchPlan(FetchPlan fetchPlan) {
+
+		if (fetchPlan == null) {
+			throw new IllegalArgumentException("Parameter fetchPlan cannot be null");
+		}
+
+		final ClassMetadata metadata = getClassMetadata();
+		final List<String> properties = Arrays.asList(metadata.getPropertyNames());
+		final List<String> paths = new ArrayList<String>();
+		paths.addAll(Arrays.asList(fetchPlan.getJoinPaths()));
+		paths.addAll(Arrays.asList(fetchPlan.getBatchPaths()));
+
+		for (String path : paths) {
+
+			final int dot = path.indexOf('.');
+			final String property = dot >= 0 ? path.substring(0, dot) : path;
+
+			if (properties.contains(property) == false
+					|| metadata.getPropertyType(property).isAssociationType() == false) {
+				throw new IllegalArgumentException("Property " + property + " of "
+						+ metadata.getEntityName() + " is not an association nor a collection");
+			}
+
+		}
+
+	}
+
+	/**
+	 * Returns the object with a given primary key value if it is in the current session or in the
+	 * second-level cache, so it can be obtained without querying the database. Otherwise, it
+	 * returns <code>null</code>.
+	 * 
+	 * @param id a <code>K</code>. It cannot be null.
+	 * @return a <code>T</code> or <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	protected T findLoaded(K id) {
+
+		T object = findInSession(id);
+
+		if (object == null && getClassMetadata() instanceof EntityPersister) {
+
+			final EntityPersister persister = (EntityPersister) getClassMetadata();
+			final SessionImplementor session = (SessionImplementor) getSession();
+
+			if (persister.hasCache() && session.getCacheMode().isGetEnabled()) {
+
+				final CacheKey key = new CacheKey(id, persister.getIdentifierType(),
+						persister.getRootEntityName(), EntityMode.POJO, session.getFactory());
+
+				if (persister.getCacheAccessStrategy().get(key, session.getTimestamp()) != null) {
+					object = (T) getSession().get(getEntityClass(), id);
+				}
+
+			}
+
+		}
+
+		return object;
+
+	}
+
+	/**
+	 * Returns a detached copy of the object with a given primary key value stored in
+	 * {@link #getEntityCache()} or <code>null</code> if there is none.
+	 * 
+	 * @param id a <code>K</code>. It cannot be null.
+	 * @return a <code>T</code> or <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private T findCached(K id) {
+
+		final EntityCache entityCache = getEntityCache();
+
+		if (entityCache == null) {
+			return null;
+		}
+
+		final ClassMetadata metadata = getClassMetadata();
+		final Object[] state = entityCache.get(metadata.getEntityName(), id);
+
+		if (state == null) {
+			return null;
+		}
+
+		final Type[] types = metadata.getPropertyTypes();
+		final Object[] values = new Object[state.length];
+
+		for (int i = 0; i < state.length; i++) {
+			values[i] = copyValue(types[i], state[i]);
+		}
+
+		final T object = (T) metadata.instantiate(id, EntityMode.POJO);
+		metadata.setPropertyValues(object, values, EntityMode.POJO);
+
+		return object;
+
+	}
+
+	/**
+	 * Stores a copy of the state of a given object in {@link #getEntityCache()}. Objects that
+	 * reference other entities or have uninitialized collections are not cached.
+	 * 
+	 * @param id a <code>K</code>. It cannot be null.
+	 * @param object a <code>T</code>. It cannot be null.
+	 */
+	private void cache(K id, T object) {
+
+		final EntityCache entityCache = getEntityCache();
+
+		if (entityCache == null) {
+			return;
+		}
+
+		final ClassMetadata metadata = getClassMetadata();
+		final Type[] types = metadata.getPropertyTypes();
+		final Object[] values = metadata.getPropertyValues(object, EntityMode.POJO);
+		final Object[] state = new Object[values.length];
+
+		for (int i = 0; i < values.length; i++) {
+
+			state[i] = copyValue(types[i], values[i]);
+
+			if (state[i] == NOT_CACHEABLE) {
+				return;
+			}
+
+		}
+
+		entityCache.put(metadata.getEntityName(), id, state);
+
+	}
+
+	/**
+	 * Returns a copy of a property value that can be shared between sessions or
+	 * {@link #NOT_CACHEABLE} if there is none. Collections of values are copied into plain
+	 * collections, while references to other entities are not cacheable.
+	 * 
+	 * @param type the property {@link Type}.
+	 * @param value the property value.
+	 * @return an {@link Object}.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object copyValue(Type type, Object value) {
+
+		if (value == null) {
+			return null;
+		}
+
+		final SessionFactoryImplementor factory = (SessionFactoryImplementor) getSessionFactory();
+
+		if (type.isCollectionType()) {
+
+			final Type elementType = ((CollectionType) type).getElementType(factory);
+
+			if (elementType.isAssociationType() || elementType.isComponentType()) {
+				return NOT_CACHEABLE;
+			}
+
+			if (value instanceof PersistentCollection
+					&& ((PersistentCollection) value).wasInitialized() == false) {
+				return NOT_CACHEABLE;
+			}
+
+			if (value instanceof List) {
+				return new ArrayList<Object>((List<Object>) value);
+			}
+			else if (value instanceof SortedSet) {
+				return new TreeSet<Object>((SortedSet<Object>) value);
+			}
+			else if (value instanceof Set) {
+				return new LinkedHashSet<Object>((Set<Object>) value);
+			}
+			else if (value instanceof SortedMap) {
+				return new TreeMap<Object, Object>((SortedMap<Object, Object>) value);
+			}
+			else if (value instanceof Map) {
+				return new LinkedHashMap<Object, Object>((Map<Object, Object>) value);
+			}
+			else if (value instanceof Collection) {
+				return new ArrayList<Object>((Collection<Object>) value);
+			}
+
+			return NOT_CACHEABLE;
+
+		}
+
+		if (type.isAssociationType()) {
+			return NOT_CACHEABLE;
+		}
+
+		return type.deepCopy(value, EntityMode.POJO, factory);
+
+	}
+
+	/**
+	 * @see br.com.arsmachina.dao.ReadableDAO#findByExample(java.lang.Object)
+	 */
+	public List<T> findByExample(T example) {
+		return findByExample(example, readOnly);
+	}
+
+	/**
+	 * Returns the objects that match a given example in read-only mode, as if
+	 * {@link #isReadOnly()} was <code>true</code>.
+	 * 
+	 * @param example a <code>T</code>.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findByExample(Object)
+	 * @see #setReadOnly(boolean)
+	 */
+	public List<T> findByExampleReadOnly(T example) {
+		return findByExample(example, true);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> findByExample(T example, boolean readOnly) {
+
+		final long start = operationStarted(DAOOperation.FIND_BY_EXAMPLE);
+		Criteria criteria = null;
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			criteria = createCriteria();
+
+			if (example != null) {
+				criteria.add(createExample(example));
+			}
+
+			applyQueryCache(criteria, DAOOperation.FIND_BY_EXAMPLE);
+			prepareRead(criteria, readOnly);
+			result = criteria.list();
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_BY_EXAMPLE, start, size(result), failure,
+					criteria, example);
+		}
+
+	}
+
+	/**
+	 * @see br.com.arsmachina.dao.WriteableDAO#refresh(java.lang.Object)
+	 */
+	public void refresh(T object) {
+
+		final long start = operationStarted(DAOOperation.REFRESH);
+		Throwable failure = null;
+
+		try {
+
+			getSession().refresh(object);
+
+			if (readOnly) {
+				makeReadOnly(object);
+			}
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.REFRESH, start, 1, failure, null, object);
+		}
+
+	}
+
+	/**
+	 * If <code>sortingConstraints</code> is <code>null</code> or empty, this implementation
+	 * sort the results by the {@link SortCriterion}s returned by
+	 * {@link #getDefaultSortCriterions()}.
+	 * 
+	 * @see br.com.arsmachina.dao.ReadableDAO#findAll(int, int,
+	 * br.com.arsmachina.dao.SortCriterion[])
+	 */
+	public List<T> findAll(int firstResult, int maximumResults, SortCriterion... sortingConstraints) {
+		return findAll(readOnly, firstResult, maximumResults, sortingConstraints);
+	}
+
+	/**
+	 * Returns a page of the entity class' objects in read-only mode, as if
+	 * {@link #isReadOnly()} was <code>true</code>.
+	 * 
+	 * @param firstResult an <code>int</code>.
+	 * @param maximumResults an <code>int</code>.
+	 * @param sortingConstraints a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findAll(int, int, SortCriterion...)
+	 * @see #setReadOnly(boolean)
+	 */
+	public List<T> findAllReadOnly(int firstResult, int maximumResults,
+			SortCriterion... sortingConstraints) {
+		return findAll(true, firstResult, maximumResults, sortingConstraints);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> findAll(boolean readOnly, int firstResult, int maximumResults,
+			SortCriterion... sortingConstraints) {
+
+		final long start = operationStarted(DAOOperation.FIND_ALL_PAGED);
+		Criteria criteria = null;
+		List<T> result = null;
+		Throwable failure = null;
+
+		try {
+
+			criteria = createCriteria();
+			criteria.setFirstResult(firstResult);
+			criteria.setMaxResults(maximumResults);
+
+			if (sortingConstraints == null || sortingConstraints.length == 0) {
+				sortingConstraints = getDefaultSortCriteria();
+			}
+
+			addSortCriteria(criteria, sortingConstraints);
+			applyQueryCache(criteria, DAOOperation.FIND_ALL_PAGED);
+			prepareRead(criteria, readOnly);
+			result = criteria.list();
+
+			if (readOnly) {
+				makeReadOnly(result);
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_ALL_PAGED, start, size(result), failure,
+					criteria, firstResult, maximumResults, sortingConstraints);
+		}
+
+	}
+
+	/**
+	 * Returns the page of objects that comes right after a given object (keyset pagination).
+	 * Differently from {@link #findAll(int, int, SortCriterion...)}, the database does not need
+	 * to read and discard the rows of the previous pages, so the cost of fetching a page does not
+	 * depend on its position. The values of the sort properties are read from <code>last</code>.
+	 * 
+	 * @param last the last object of the previous page or <code>null</code> for the first page.
+	 * @param maximumResults the maximum number of objects to return.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>. If none is given,
+	 * {@link #getDefaultSortCriteria()} is used.
+	 * @return a {@link List} of <code>T</code>.
+	 * @see #findAllAfter(Object[], Serializable, int, SortCriterion...)
+	 */
+	public List<T> findAllAfter(T last, int maximumResults, SortCriterion... sortCriteria) {
+
+		Object[] lastSortValues = null;
+		K lastId = null;
+
+		if (last != null) {
+
+			if (sortCriteria == null || sortCriteria.length == 0) {
+				sortCriteria = getDefaultSortCriteria();
+			}
+
+			lastSortValues = new Object[sortCriteria.length];
+
+			for (int i = 0; i < sortCriteria.length; i++) {
+				lastSortValues[i] = getPropertyValue(last, sortCriteria[i].getProperty());
+			}
+
+			lastId = getIdentifier(last);
+
+		}
+
+		return findAllAfter(lastSortValues, lastId, maximumResults, sortCriteria);
+
+	}
+
 	/**
-	 * Returns a HQL <code>order by</code> clause given some {@link SortCriterion}s.
+	 * Returns the page of objects that comes right after a given position (keyset pagination).
+	 * The position is given by the values of the sort properties and of the primary key in the
+	 * last object of the previous page. The primary key is used as a tiebreaker, so the sort
+	 * properties do not need to be unique, but they must not be null.
 	 * 
-	 * @param sortCriteria {@link SortCriterion} instances.
-	 * @return a {@link String}.
+	 * @param lastSortValues the values of the sort properties in the last object of the previous
+	 * page, in the same order as <code>sortCriteria</code>, or <code>null</code> for the first
+	 * page.
+	 * @param lastId the primary key of the last object of the previous page or <code>null</code>
+	 * for the first page.
+	 * @param maximumResults the maximum number of objects to return.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>. If none is given,
+	 * {@link #getDefaultSortCriteria()} is used.
+	 * @return a {@link List} of <code>T</code>.
 	 */
-	final public static String toHqlOrderBy(SortCriterion... sortCriteria) {
+	@SuppressWarnings("unchecked")
+	public List<T> findAllAfter(Object[] lastSortValues, K lastId, int maximumResults,
+			SortCriterion... sortCriteria) {
 
-		String string = "";
+		final long start = operationStarted(DAOOperation.FIND_ALL_AFTER);
+		Criteria criteria = null;
+		List<T> result = null;
+		Throwable failure = null;
 
-		if (sortCriteria.length > 0) {
+		try {
 
-			StringBuilder builder = new StringBuilder(" ORDER BY ");
+			criteria = createKeysetCriteria(lastSortValues, lastId, maximumResults, sortCriteria);
+			applyQueryCache(criteria, DAOOperation.FIND_ALL_AFTER);
+			prepareRead(criteria, readOnly);
+			result = criteria.list();
 
-			for (int i = 0; i < sortCriteria.length - 1; i++) {
-				builder.append(sortCriteria.toString());
-				builder.append(", ");
+			if (readOnly) {
+				makeReadOnly(result);
 			}
 
-			builder.append(sortCriteria[sortCriteria.length - 1]);
+			return result;
 
-			string = builder.toString();
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_ALL_AFTER, start, size(result), failure,
+					criteria, lastSortValues, lastId, maximumResults, sortCriteria);
+		}
+
+	}
 
+	/**
+	 * Creates a {@link Criteria} for this entity class that returns the page of objects that comes
+	 * right after a given position. It is used by
+	 * {@link #findAllAfter(Object[], Serializable, int, SortCriterion...)}.
+	 * 
+	 * @param lastSortValues an {@link Object} array or <code>null</code>.
+	 * @param lastId a <code>K</code> or <code>null</code>.
+	 * @param maximumResults an <code>int</code>.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link Criteria}.
+	 */
+	public Criteria createKeysetCriteria(Object[] lastSortValues, K lastId, int maximumResults,
+			SortCriterion... sortCriteria) {
+
+		if (sortCriteria == null || sortCriteria.length == 0) {
+			sortCriteria = getDefaultSortCriteria();
 		}
 
-		return string;
+		final Criteria criteria = createCriteria();
+		final String primaryKey = getPrimaryKeyPropertyName();
+		boolean sortedByPrimaryKey = false;
+
+		for (SortCriterion sortCriterion : sortCriteria) {
+			sortedByPrimaryKey |= primaryKey.equals(sortCriterion.getProperty());
+		}
+
+		if (lastId != null || lastSortValues != null) {
+
+			if (lastId == null) {
+				throw new IllegalArgumentException("Parameter lastId cannot be null when "
+						+ "lastSortValues is not null");
+			}
+
+			final int length = lastSortValues != null ? lastSortValues.length : 0;
+
+			if (length != sortCriteria.length) {
+				throw new IllegalArgumentException("Parameter lastSortValues must have one value "
+						+ "for each sort criterion");
+			}
+
+			final int keys = sortedByPrimaryKey ? length : length + 1;
+			final String[] properties = new String[keys];
+			final Object[] values = new Object[keys];
+			final boolean[] ascending = new boolean[keys];
+
+			for (int i = 0; i < length; i++) {
+
+				if (lastSortValues[i] == null) {
+					throw new IllegalArgumentException("Keyset pagination does not support null "
+							+ "values (property " + sortCriteria[i].getProperty() + ")");
+				}
+
+				properties[i] = sortCriteria[i].getProperty();
+				values[i] = lastSortValues[i];
+				ascending[i] = sortCriteria[i].isAscending();
+
+			}
+
+			if (sortedByPrimaryKey == false) {
+				properties[length] = primaryKey;
+				values[length] = lastId;
+				ascending[length] = true;
+			}
+
+			criteria.add(createKeysetRestriction(properties, values, ascending));
+
+		}
+
+		addSortCriteria(criteria, sortCriteria);
+
+		if (sortedByPrimaryKey == false) {
+			criteria.addOrder(Order.asc(primaryKey));
+		}
+
+		criteria.setMaxResults(maximumResults);
+
+		return criteria;
 
 	}
 
 	/**
-	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
+	 * Creates the restriction that selects the rows that come after a given position. For keys
+	 * <code>(a, b, c)</code>, it is <code>a > :a or (a = :a and b > :b) or
+	 * (a = :a and b = :b and c > :c)</code>, using <code>&lt;</code> for descending keys.
 	 * 
-	 * @param clasz a {@link Class}.
-	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 * @param properties the names of the sort properties.
+	 * @param values the values of the sort properties in the last row of the previous page.
+	 * @param ascending the sort direction of each property.
+	 * @return a {@link Criterion}.
 	 */
-	@SuppressWarnings("unchecked")
-	public ReadableDAOImpl(SessionFactory sessionFactory) {
-		super(null, sessionFactory);
+	private static Criterion createKeysetRestriction(String[] properties, Object[] values,
+			boolean[] ascending) {
+
+		final Disjunction disjunction = Restrictions.disjunction();
+
+		for (int i = 0; i < properties.length; i++) {
+
+			final Conjunction conjunction = Restrictions.conjunction();
+
+			for (int j = 0; j < i; j++) {
+				conjunction.add(Restrictions.eq(properties[j], values[j]));
+			}
+
+			if (ascending[i]) {
+				conjunction.add(Restrictions.gt(properties[i], values[i]));
+			}
+			else {
+				conjunction.add(Restrictions.lt(properties[i], values[i]));
+			}
+
+			disjunction.add(conjunction);
+
+		}
+
+		return disjunction;
+
 	}
 
 	/**
-	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
+	 * Returns the values of some properties of the entity class' objects, one array for each
+	 * object, without loading the objects themselves. Only the columns of the given properties
+	 * are read and nothing is added to the session, so this method is much cheaper than
+	 * {@link #findAll(int, int, SortCriterion...)} when just a few properties are needed.
 	 * 
-	 * @param clasz a {@link Class}.
-	 * @param sessionFactory a {@link SessionFactory}. It cannot be null.
+	 * @param firstResult the index of the first row to return.
+	 * @param maximumResults the maximum number of rows to return.
+	 * @param properties the names of the properties. They must be simple or component properties
+	 * of the entity class or its primary key property. It cannot be null nor empty.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>. If none is given,
+	 * {@link #getDefaultSortCriteria()} is used.
+	 * @return a {@link List} of {@link Object} arrays, with the values in the same order as
+	 * <code>properties</code>.
+	 * @see #createProjectionCriteria(int, int, String[], SortCriterion...)
 	 */
-	@SuppressWarnings("unchecked")
-	public ReadableDAOImpl(Class<T> clasz, SessionFactory sessionFactory) {
-		super(clasz, sessionFactory);
+	public List<Object[]> findAllAsArrays(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+		return findProjection(firstResult, maximumResults, properties, sortCriteria);
 	}
 
 	/**
-	 * @see br.com.arsmachina.dao.ReadableDAO#countAll()
+	 * Returns the values of some properties of the entity class' objects, one map for each
+	 * object, whose keys are the property names.
+	 * 
+	 * @param firstResult the index of the first row to return.
+	 * @param maximumResults the maximum number of rows to return.
+	 * @param properties the names of the properties. It cannot be null nor empty.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link List} of {@link Map}s, with the keys in the same order as
+	 * <code>properties</code>.
+	 * @see #findAllAsArrays(int, int, String[], SortCriterion...)
 	 */
-	public int countAll() {
+	public List<Map<String, Object>> findAllAsMaps(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
 
-		final Criteria criteria = createCriteria();
+		final List<Object[]> rows = findProjection(firstResult, maximumResults, properties,
+				sortCriteria);
+		final List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>(rows.size());
 
-		criteria.setProjection(Projections.rowCount());
+		for (Object[] row : rows) {
 
-		return (Integer) criteria.uniqueResult();
+			final Map<String, Object> map = new LinkedHashMap<String, Object>(row.length * 2);
+
+			for (int i = 0; i < row.length; i++) {
+				map.put(properties[i], row[i]);
+			}
+
+			maps.add(map);
+
+		}
+
+		return maps;
 
 	}
 
 	/**
-	 * Returns all the entity class' objects. They are sorted according to
-	 * {@link #getDefaultSortCriterions()}.
+	 * Returns the values of some properties of the entity class' objects, one DTO (data
+	 * transfer object) for each object. The DTO class must have a public constructor with one
+	 * parameter for each property, in the same order as <code>properties</code> and with
+	 * compatible types.
 	 * 
-	 * @see br.com.arsmachina.dao.ReadableDAO#findAll()
-	 * @see #getDefaultSortCriterions()
+	 * @param <D> the DTO type.
+	 * @param dtoClass the DTO class. It cannot be null.
+	 * @param firstResult the index of the first row to return.
+	 * @param maximumResults the maximum number of rows to return.
+	 * @param properties the names of the properties. It cannot be null nor empty.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link List} of <code>D</code>.
+	 * @see #findAllAsArrays(int, int, String[], SortCriterion...)
 	 */
-	@SuppressWarnings("unchecked")
-	public List<T> findAll() {
+	public <D> List<D> findAllAsDTOs(Class<D> dtoClass, int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
 
-		Criteria criteria = createCriteria();
-		addSortCriteria(criteria, getDefaultSortCriteria());
-		return criteria.list();
+		if (dtoClass == null) {
+			throw new IllegalArgumentException("Parameter dtoClass cannot be null");
+		}
+
+		final Constructor<D> constructor = getDTOConstructor(dtoClass, properties);
+		final List<Object[]> rows = findProjection(firstResult, maximumResults, properties,
+				sortCriteria);
+		final List<D> dtos = new ArrayList<D>(rows.size());
+
+		try {
+
+			for (Object[] row : rows) {
+				dtos.add(constructor.newInstance(row));
+			}
+
+		}
+		catch (InvocationTargetException e) {
+			throw new IllegalStateException("Could not instantiate " + dtoClass.getName(),
+					e.getCause());
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Could not instantiate " + dtoClass.getName(), e);
+		}
+
+		return dtos;
 
 	}
 
 	/**
-	 * @see br.com.arsmachina.dao.ReadableDAO#findById(java.io.Serializable)
+	 * Creates a {@link Criteria} for this entity class that returns the values of the given
+	 * properties. It is used by {@link #findAllAsArrays(int, int, String[], SortCriterion...)}.
+	 * 
+	 * @param firstResult an <code>int</code>.
+	 * @param maximumResults an <code>int</code>.
+	 * @param properties a {@link String} array.
+	 * @param sortCriteria a {@link SortCriterion}<code>...</code>.
+	 * @return a {@link Criteria}.
+	 * @throws IllegalArgumentException if a property does not exist or is a collection or an
+	 * association.
 	 */
-	@SuppressWarnings("unchecked")
-	public T findById(K id) {
-		return (T) getSession().get(getEntityClass(), id);
+	public Criteria createProjectionCriteria(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
+
+		if (properties == null || properties.length == 0) {
+			throw new IllegalArgumentException("Parameter properties cannot be null nor empty");
+		}
+
+		final ProjectionList projection = Projections.projectionList();
+
+		for (String property : properties) {
+			getProjectedPropertyType(property);
+			projection.add(Projections.property(property));
+		}
+
+		if (sortCriteria == null || sortCriteria.length == 0) {
+			sortCriteria = getDefaultSortCriteria();
+		}
+
+		final Criteria criteria = createCriteria(firstResult, maximumResults, sortCriteria);
+		criteria.setProjection(projection);
+
+		return criteria;
+
 	}
 
 	/**
-	 * @see br.com.arsmachina.dao.ReadableDAO#findByIds(K[])
+	 * Executes the {@link Criteria} created by
+	 * {@link #createProjectionCriteria(int, int, String[], SortCriterion...)} and returns its
+	 * rows as arrays, even when there is a single property.
 	 */
 	@SuppressWarnings("unchecked")
-	public List<T> findByIds(K... ids) {
+	private List<Object[]> findProjection(int firstResult, int maximumResults,
+			String[] properties, SortCriterion... sortCriteria) {
 
-		Criteria criteria = createCriteria();
-		criteria.add(Restrictions.in(getPrimaryKeyPropertyName(), ids));
-		return criteria.list();
+		final long start = operationStarted(DAOOperation.FIND_PROJECTION);
+		Criteria criteria = null;
+		List<Object[]> result = null;
+		Throwable failure = null;
+
+		try {
+
+			criteria = createProjectionCriteria(firstResult, maximumResults, properties,
+					sortCriteria);
+			applyQueryCache(criteria, DAOOperation.FIND_PROJECTION);
+
+			final List<Object> rows = criteria.list();
+			result = new ArrayList<Object[]>(rows.size());
+
+			for (Object row : rows) {
+				result.add(row instanceof Object[] ? (Object[]) row : new Object[] { row });
+			}
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.FIND_PROJECTION, start, size(result), failure,
+					criteria, firstResult, maximumResults, properties, sortCriteria);
+		}
 
 	}
 
 	/**
-	 * @see br.com.arsmachina.dao.ReadableDAO#findByExample(java.lang.Object)
+	 * Returns the {@link Type} of a property used in a projection, validating it against
+	 * {@link #getClassMetadata()}. Paths to properties of components, such as
+	 * <code>address.city</code>, are supported.
+	 * 
+	 * @param property a {@link String}.
+	 * @return a {@link Type}.
+	 * @throws IllegalArgumentException if the property does not exist or is a collection or an
+	 * association.
 	 */
-	@SuppressWarnings("unchecked")
-	public List<T> findByExample(T example) {
+	protected Type getProjectedPropertyType(String property) {
 
-		Criteria criteria = createCriteria();
+		if (property == null) {
+			throw new IllegalArgumentException("Property names cannot be null");
+		}
 
-		if (example != null) {
-			criteria.add(createExample(example));
+		final ClassMetadata metadata = getClassMetadata();
+		final String[] path = property.split("\\.");
+		Type type;
+
+		if (path[0].equals(metadata.getIdentifierPropertyName())) {
+			type = metadata.getIdentifierType();
+		}
+		else if (Arrays.asList(metadata.getPropertyNames()).contains(path[0])) {
+			type = metadata.getPropertyType(path[0]);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown property " + property + " in "
+					+ metadata.getEntityName());
 		}
 
-		return criteria.list();
+		for (int i = 1; i < path.length; i++) {
 
-	}
+			if (type.isComponentType() == false) {
+				throw new IllegalArgumentException("Unknown property " + property + " in "
+						+ metadata.getEntityName());
+			}
+
+			final AbstractComponentType component = (AbstractComponentType) type;
+			final int index = Arrays.asList(component.getPropertyNames()).indexOf(path[i]);
+
+			if (index < 0) {
+				throw new IllegalArgumentException("Unknown property " + property + " in "
+						+ metadata.getEntityName());
+			}
+
+			type = component.getSubtypes()[index];
+
+		}
+
+		if (type.isAssociationType()) {
+			throw new IllegalArgumentException("Property " + property
+					+ " is a collection or an association and cannot be projected");
+		}
+
+		return type;
 
-	/**
-	 * @see br.com.arsmachina.dao.WriteableDAO#refresh(java.lang.Object)
-	 */
-	public void refresh(T object) {
-		getSession().refresh(object);
 	}
 
 	/**
-	 * If <code>sortingConstraints</code> is <code>null</code> or empty, this implementation
-	 * sort the results by the {@link SortCriterion}s returned by
-	 * {@link #getDefaultSortCriterions()}.
+	 * Returns the constructor of a DTO class compatible with the types of the given properties.
 	 * 
-	 * @see br.com.arsmachina.dao.ReadableDAO#findAll(int, int,
-	 * br.com.arsmachina.dao.SortCriterion[])
+	 * @param dtoClass a {@link Class}.
+	 * @param properties a {@link String} array.
+	 * @return a {@link Constructor}.
 	 */
 	@SuppressWarnings("unchecked")
-	public List<T> findAll(int firstResult, int maximumResults, SortCriterion... sortingConstraints) {
+	private <D> Constructor<D> getDTOConstructor(Class<D> dtoClass, String[] properties) {
 
-		Criteria criteria = createCriteria();
-		criteria.setFirstResult(firstResult);
-		criteria.setMaxResults(maximumResults);
+		if (properties == null || properties.length == 0) {
+			throw new IllegalArgumentException("Parameter properties cannot be null nor empty");
+		}
+
+		final Class<?>[] types = new Class<?>[properties.length];
+
+		for (int i = 0; i < properties.length; i++) {
+			types[i] = getProjectedPropertyType(properties[i]).getReturnedClass();
+		}
+
+		for (Constructor<?> constructor : dtoClass.getConstructors()) {
+
+			final Class<?>[] parameters = constructor.getParameterTypes();
+			boolean compatible = parameters.length == types.length;
+
+			for (int i = 0; compatible && i < parameters.length; i++) {
+				compatible = box(parameters[i]).isAssignableFrom(box(types[i]));
+			}
+
+			if (compatible) {
+				return (Constructor<D>) constructor;
+			}
 
-		if (sortingConstraints == null || sortingConstraints.length == 0) {
-			sortingConstraints = getDefaultSortCriteria();
 		}
 
-		addSortCriteria(criteria, sortingConstraints);
+		throw new IllegalArgumentException("Class " + dtoClass.getName()
+				+ " has no public constructor compatible with " + Arrays.asList(types));
+
+	}
+
+	/**
+	 * Returns the wrapper class of a primitive type or the type itself otherwise.
+	 */
+	private static Class<?> box(Class<?> type) {
+
+		if (type.isPrimitive() == false) {
+			return type;
+		}
+		else if (type == int.class) {
+			return Integer.class;
+		}
+		else if (type == long.class) {
+			return Long.class;
+		}
+		else if (type == boolean.class) {
+			return Boolean.class;
+		}
+		else if (type == double.class) {
+			return Double.class;
+		}
+		else if (type == float.class) {
+			return Float.class;
+		}
+		else if (type == short.class) {
+			return Short.class;
+		}
+		else if (type == byte.class) {
+			return Byte.class;
+		}
+		else if (type == char.class) {
+			return Character.class;
+		}
 
-		return criteria.list();
+		return type;
 
 	}
 
@@ -207,9 +2009,83 @@ public abstract class ReadableDAOImpl<T, K extends Serializable> extends BaseHib
 	public T reattach(T object) {
 		
 		getSession().lock(object, LockMode.NONE);
+
+		if (readOnly) {
+			makeReadOnly(object);
+		}
+
 		return object;
 		
 	}
+
+	/**
+	 * Prepares a {@link Criteria} that reads objects. In read-only mode, its flush mode is set to
+	 * {@link FlushMode#MANUAL}, so the session is not flushed before the query is executed.
+	 * 
+	 * @param criteria a {@link Criteria}. It cannot be null.
+	 * @param readOnly a <code>boolean</code>.
+	 */
+	protected void prepareRead(Criteria criteria, boolean readOnly) {
+
+		if (readOnly) {
+			criteria.setFlushMode(FlushMode.MANUAL);
+		}
+
+	}
+
+	/**
+	 * Makes the given objects read-only in the current session, so Hibernate discards their
+	 * state snapshots and does not check them for changes when the session is flushed. Objects
+	 * that are not in the session are ignored.
+	 * 
+	 * @param objects a {@link Collection}. It cannot be null.
+	 */
+	protected void makeReadOnly(Collection<?> objects) {
+
+		for (Object object : objects) {
+			makeReadOnly(object);
+		}
+
+	}
+
+	/**
+	 * Makes a given object read-only in the current session. If it is <code>null</code> or is
+	 * not in the session, nothing is done.
+	 * 
+	 * @param object an {@link Object}.
+	 */
+	protected void makeReadOnly(Object object) {
+
+		final Session session = getSession();
+
+		if (object != null && session.contains(object)) {
+			session.setReadOnly(object, true);
+		}
+
+	}
+
+	/**
+	 * Returns the value of the <code>readOnly</code> property.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Changes the value of the <code>readOnly</code> property. In read-only mode, the objects
+	 * returned by the find methods, {@link #reattach(Object)} and {@link #refresh(Object)} are
+	 * made read-only in the session, so no state snapshot is kept for them and changes to them
+	 * are never written to the database, and the session is not flushed before the queries.
+	 * Objects that were already in the session before being returned become read-only too, so
+	 * read-only mode should not be used in sessions that change the same objects.
+	 * 
+	 * @param readOnly a <code>boolean</code>.
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
 	
 	/**
 	 * Adds <code>sortCriteria</code> to a {@link Criteria} instance.
@@ -296,20 +2172,51 @@ public abstract class ReadableDAOImpl<T, K extends Serializable> extends BaseHib
 	}
 
 	/**
-	 * Used by {@link #findByExample(Object)} to create an {@link Example} instance.
+	 * Returns the value of the <code>fetchSize</code> property.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Changes the value of the <code>fetchSize</code> property.
+	 * 
+	 * @param fetchSize an <code>int</code>. It must be greater than zero.
+	 */
+	public void setFetchSize(int fetchSize) {
+
+		if (fetchSize <= 0) {
+			throw new IllegalArgumentException("Parameter fetchSize must be greater than zero");
+		}
+
+		this.fetchSize = fetchSize;
+
+	}
+
+	/**
+	 * Returns the value of the <code>clearInterval</code> property.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getClearInterval() {
+		return clearInterval;
+	}
+
+	/**
+	 * Changes the value of the <code>clearInterval</code> property. Zero means the iterated objects
+	 * are never evicted from the session.
 	 * 
-	 * @todo add criteria for property types not handled by Example (primary keys, associations,
-	 * etc)
-	 * @return an {@link Example}.
+	 * @param clearInterval an <code>int</code>. It cannot be negative.
 	 */
-	public Example createExample(T entity) {
+	public void setClearInterval(int clearInterval) {
 
-		Example example = Example.create(entity);
-		example.enableLike(MatchMode.ANYWHERE);
-		example.excludeZeroes();
-		example.ignoreCase();
+		if (clearInterval < 0) {
+			throw new IllegalArgumentException("Parameter clearInterval cannot be negative");
+		}
 
-		return example;
+		this.clearInterval = clearInterval;
 
 	}
 
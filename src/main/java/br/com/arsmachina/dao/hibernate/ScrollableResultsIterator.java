@@ -0,0 +1,186 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+
+/**
+ * {@link CloseableIterator} implementation backed by a {@link ScrollableResults}. Each
+ * <code>clearInterval</code> returned objects, every entity that entered the {@link Session}
+ * since the iteration started, including associated objects, is evicted from it, and so are their
+ * collections, so the persistence context does not grow with the number of iterated rows. The
+ * objects that were already in the session when the iterator was created are kept.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the type of the iterated objects.
+ */
+final class ScrollableResultsIterator<T> implements CloseableIterator<T> {
+
+	final private ScrollableResults results;
+
+	final private Session session;
+
+	final private int clearInterval;
+
+	final private boolean readOnly;
+
+	final private PersistenceContext persistenceContext;
+
+	final private Set<Object> initialKeys;
+
+	private int returned;
+
+	private boolean advanced;
+
+	private boolean hasNext;
+
+	private boolean closed;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param results a {@link ScrollableResults}. It cannot be null.
+	 * @param session the {@link Session} used to create <code>results</code>. It cannot be null.
+	 * @param clearInterval the number of objects returned between evictions. If it is zero or
+	 * negative, no object is evicted.
+	 * @param readOnly if <code>true</code>, the returned objects are made read-only.
+	 */
+	ScrollableResultsIterator(ScrollableResults results, Session session, int clearInterval,
+			boolean readOnly) {
+
+		assert results != null;
+		assert session != null;
+
+		this.results = results;
+		this.session = session;
+		this.clearInterval = clearInterval;
+		this.readOnly = readOnly;
+
+		if (clearInterval > 0) {
+			persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+			initialKeys = new HashSet<Object>(persistenceContext.getEntitiesByKey().keySet());
+		}
+		else {
+			persistenceContext = null;
+			initialKeys = null;
+		}
+
+	}
+
+	public boolean hasNext() {
+
+		if (advanced == false && closed == false) {
+
+			if (clearInterval > 0 && returned >= clearInterval) {
+				evictLoaded();
+			}
+
+			hasNext = results.next();
+			advanced = true;
+
+			if (hasNext == false) {
+				close();
+			}
+
+		}
+
+		return hasNext && closed == false;
+
+	}
+
+	@SuppressWarnings("unchecked")
+	public T next() {
+
+		if (hasNext() == false) {
+			throw new NoSuchElementException();
+		}
+
+		advanced = false;
+
+		final Object object = results.get(0);
+
+		if (readOnly && object != null) {
+			session.setReadOnly(object, true);
+		}
+
+		returned++;
+
+		return (T) object;
+
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException}.
+	 * 
+	 * @see java.util.Iterator#remove()
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException("remove() is not supported");
+	}
+
+	public void close() {
+
+		if (closed == false) {
+			closed = true;
+			results.close();
+		}
+
+	}
+
+	/**
+	 * Evicts from the session all the entities that were not in it when this iterator was
+	 * created. Evicting an entity also evicts its collections. This is done before the next row
+	 * is read, so each returned object stays attached until {@link #hasNext()} or
+	 * {@link #next()} is invoked again. Unless the iterator is read-only or the session flush
+	 * mode is manual, the session is flushed first, so changes made to the evicted objects are
+	 * not lost.
+	 */
+	private void evictLoaded() {
+
+		if (readOnly == false && FlushMode.isManualFlushMode(session.getFlushMode()) == false) {
+			session.flush();
+		}
+
+		final Map<?, ?> entities = persistenceContext.getEntitiesByKey();
+		final List<Object> loaded = new ArrayList<Object>(entities.size());
+
+		for (Map.Entry<?, ?> entry : entities.entrySet()) {
+
+			if (initialKeys.contains(entry.getKey()) == false) {
+				loaded.add(entry.getValue());
+			}
+
+		}
+
+		for (Object object : loaded) {
+			session.evict(object);
+		}
+
+		returned = 0;
+
+	}
+
+}
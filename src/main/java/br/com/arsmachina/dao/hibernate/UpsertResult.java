@@ -0,0 +1,100 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate;
+
+/**
+ * Number of objects inserted and updated by
+ * {@link WriteableDAOImpl#upsertAll(java.util.Collection)}. When the dialect does not tell
+ * inserted rows from updated ones, only the number of written objects is known and
+ * {@link #getInserted()} and {@link #getUpdated()} return {@link #UNKNOWN}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class UpsertResult {
+
+	/**
+	 * Value returned by {@link #getInserted()} and {@link #getUpdated()} when the numbers of
+	 * inserted and updated objects are not known.
+	 */
+	final public static int UNKNOWN = -1;
+
+	final private int inserted;
+
+	final private int updated;
+
+	final private int written;
+
+	/**
+	 * Constructor used when the numbers of inserted and updated objects are known.
+	 * 
+	 * @param inserted the number of inserted objects.
+	 * @param updated the number of updated objects.
+	 */
+	public UpsertResult(int inserted, int updated) {
+		this.inserted = inserted;
+		this.updated = updated;
+		this.written = inserted + updated;
+	}
+
+	/**
+	 * Constructor used when only the number of written objects is known.
+	 * 
+	 * @param written the number of inserted or updated objects.
+	 */
+	public UpsertResult(int written) {
+		this.inserted = UNKNOWN;
+		this.updated = UNKNOWN;
+		this.written = written;
+	}
+
+	/**
+	 * Returns the number of inserted objects.
+	 * 
+	 * @return an <code>int</code> or {@link #UNKNOWN}.
+	 */
+	public int getInserted() {
+		return inserted;
+	}
+
+	/**
+	 * Returns the number of updated objects.
+	 * 
+	 * @return an <code>int</code> or {@link #UNKNOWN}.
+	 */
+	public int getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Returns the number of inserted or updated objects.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getWritten() {
+		return written;
+	}
+
+	@Override
+	public String toString() {
+
+		if (inserted == UNKNOWN) {
+			return "written: " + written;
+		}
+
+		return "inserted: " + inserted + ", updated: " + updated;
+
+	}
+
+}
@@ -15,14 +15,35 @@
 package br.com.arsmachina.dao.hibernate;
 
 import java.io.Serializable;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
+import org.hibernate.Criteria;
 import org.hibernate.EntityMode;
 import org.hibernate.Query;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.classic.Session;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.impl.CriteriaImpl;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.util.SerializationHelper;
 
 import br.com.arsmachina.dao.WriteableDAO;
+import br.com.arsmachina.dao.hibernate.dialect.IdentityReservingDialect;
+import br.com.arsmachina.dao.hibernate.dialect.UpsertDialect;
 
 /**
  * {@link WriteableDAO} implementation using Hibernate. All methods use {@link #getSession()} to get
@@ -35,8 +56,22 @@ import br.com.arsmachina.dao.WriteableDAO;
 public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHibernateDAO<T, K>
 		implements WriteableDAO<T, K> {
 
+	/**
+	 * Default number of objects written between session flushes in {@link #saveAll(Collection)},
+	 * {@link #updateAll(Collection)} and {@link #deleteAll(Collection)}.
+	 */
+	final public static int DEFAULT_BATCH_SIZE = 50;
+
 	final private String deleteHQL;
 
+	final private String deleteByIdsHQL;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private volatile MultiRowInserter<T> multiRowInserter;
+
+	private boolean versionIncremented = true;
+
 	/**
 	 * Constructor that takes a {@link Class} and a {@link SessionFactory}.
 	 * 
@@ -58,6 +93,7 @@ public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHi
 		
 		super(clasz, sessionFactory);
 		deleteHQL = createDeleteHQL();
+		deleteByIdsHQL = createDeleteByIdsHQL();
 		
 	}
 
@@ -73,16 +109,494 @@ public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHi
 
 	}
 
+	/**
+	 * Creates an HQL query used to delete objects given a list of primary key values.
+	 * 
+	 * @return a {@link String}.
+	 */
+	String createDeleteByIdsHQL() {
+
+		return "delete from " + getEntityClass().getName() + " where "
+				+ getPrimaryKeyPropertyName() + " in (:ids)";
+
+	}
+
+	/**
+	 * Returns the HQL query used to delete an object given its primary key value.
+	 * 
+	 * @return a {@link String}.
+	 */
+	final String getDeleteHQL() {
+		return deleteHQL;
+	}
+
 	public void delete(K id) {
 
-		Query query = getSession().createQuery(deleteHQL);
-		query.setParameter("id", id);
-		query.executeUpdate();
+		final long start = operationStarted(DAOOperation.DELETE_BY_ID);
+		int count = 0;
+		Throwable failure = null;
+
+		try {
+
+			Query query = getSession().createQuery(deleteHQL);
+			query.setParameter("id", id);
+			count = query.executeUpdate();
+			countChanged(-count);
+
+			getSessionFactory().evict(getEntityClass(), id);
+			invalidateCachedEntity(id);
+			evictQueryCache();
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.DELETE_BY_ID, start, count, failure, deleteHQL, id);
+		}
 
 	}
 
 	public void delete(T object) {
-		getSession().delete(object);
+
+		final long start = operationStarted(DAOOperation.DELETE);
+		Throwable failure = null;
+
+		try {
+			getSession().delete(object);
+			countChanged(-1);
+			invalidateCachedObject(object);
+			evictQueryCache();
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.DELETE, start, 1, failure, null, object);
+		}
+
+	}
+
+	/**
+	 * Deletes the objects with the given primary key values using one HQL <code>delete</code>
+	 * statement for each {@link #getMaximumInListSize()} ids. No object is loaded and no
+	 * cascading is done. Objects already loaded in the current session are not evicted.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @return the number of deleted rows.
+	 * @see #deleteByIds(Collection, boolean)
+	 */
+	public int deleteByIds(Collection<K> ids) {
+		return deleteByIds(ids, false);
+	}
+
+	/**
+	 * Deletes the objects with the given primary key values using one HQL <code>delete</code>
+	 * statement for each {@link #getMaximumInListSize()} ids. No object is loaded and no
+	 * cascading is done.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @param evict if <code>true</code>, the deleted objects are evicted from the current session
+	 * and from the second-level cache.
+	 * @return the number of deleted rows.
+	 */
+	public int deleteByIds(Collection<K> ids, boolean evict) {
+
+		if (ids == null) {
+			throw new IllegalArgumentException("Parameter ids cannot be null");
+		}
+
+		final long start = operationStarted(DAOOperation.DELETE_BY_IDS);
+		int count = 0;
+		Throwable failure = null;
+
+		try {
+
+			final Session session = getSession();
+
+			for (Object[] chunk : partitionIds(ids)) {
+
+				Query query = session.createQuery(deleteByIdsHQL);
+				query.setParameterList("ids", chunk);
+				count += query.executeUpdate();
+
+			}
+
+			countChanged(-count);
+
+			invalidateCachedEntities(ids);
+
+			if (evict) {
+				evictAll(ids);
+			}
+
+			evictQueryCache();
+
+			return count;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.DELETE_BY_IDS, start, count, failure, deleteByIdsHQL,
+					ids, evict);
+		}
+
+	}
+
+	/**
+	 * Deletes the objects matched by a given {@link DetachedCriteria}. Their primary key values
+	 * are read by {@link #findIds(byte[], Serializable, int)}, {@link #getMaximumInListSize()}
+	 * at a time, and each chunk is deleted using {@link #deleteByIds(Collection, boolean)}, so
+	 * the memory used does not depend on the number of matched objects. <code>criteria</code>
+	 * itself is not changed.
+	 * 
+	 * @param criteria a {@link DetachedCriteria} for this entity class. It cannot be null.
+	 * @param evict if <code>true</code>, the deleted objects are evicted from the current session
+	 * and from the second-level cache.
+	 * @return the number of deleted rows.
+	 */
+	public int deleteByCriteria(DetachedCriteria criteria, boolean evict) {
+
+		if (criteria == null) {
+			throw new IllegalArgumentException("Parameter criteria cannot be null");
+		}
+
+		final long start = operationStarted(DAOOperation.DELETE_BY_CRITERIA);
+		int count = 0;
+		Throwable failure = null;
+
+		try {
+
+			final byte[] serialized = SerializationHelper.serialize(criteria);
+			final int chunkSize = getIdChunkSize();
+			List<K> ids;
+			K last = null;
+
+			do {
+
+				ids = findIds(serialized, last, chunkSize);
+
+				if (ids.isEmpty() == false) {
+					count += deleteByIds(ids, evict);
+					last = ids.get(ids.size() - 1);
+				}
+
+			}
+			while (ids.size() == chunkSize);
+
+			return count;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.DELETE_BY_CRITERIA, start, count, failure, criteria,
+					evict);
+		}
+
+	}
+
+	/**
+	 * Returns the number of primary key values read at a time by
+	 * {@link #findIds(byte[], Serializable, int)}: {@link #getMaximumInListSize()} or, if the
+	 * primary key is a component, which cannot be compared, {@link Integer#MAX_VALUE}.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	private int getIdChunkSize() {
+		return getClassMetadata().getIdentifierType().isComponentType() ? Integer.MAX_VALUE
+				: getMaximumInListSize();
+	}
+
+	/**
+	 * Returns, in ascending order, the primary key values of at most <code>maximumResults</code>
+	 * objects matched by a serialized {@link DetachedCriteria} that are greater than a given
+	 * one. Each invocation deserializes a new copy of the criteria, whose projection and
+	 * orders are replaced, so the criteria given by the caller is never changed.
+	 * 
+	 * @param criteria a serialized {@link DetachedCriteria}.
+	 * @param after a <code>K</code> or <code>null</code> to start from the first object.
+	 * @param maximumResults an <code>int</code>.
+	 * @return a {@link List} of <code>K</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<K> findIds(byte[] criteria, K after, int maximumResults) {
+
+		final DetachedCriteria copy = (DetachedCriteria) SerializationHelper.deserialize(criteria);
+		final String primaryKey = getPrimaryKeyPropertyName();
+		copy.setProjection(Projections.id());
+
+		if (after != null) {
+			copy.add(Restrictions.gt(primaryKey, after));
+		}
+
+		final Criteria executable = copy.getExecutableCriteria(getSession());
+
+		if (executable instanceof CriteriaImpl) {
+
+			final Iterator<?> orderings = ((CriteriaImpl) executable).iterateOrderings();
+
+			while (orderings.hasNext()) {
+				orderings.next();
+				orderings.remove();
+			}
+
+		}
+
+		executable.addOrder(Order.asc(primaryKey));
+		executable.setMaxResults(maximumResults);
+
+		return executable.list();
+
+	}
+
+	/**
+	 * Updates the objects with the given primary key values using one HQL <code>update</code>
+	 * statement for each {@link #getMaximumInListSize()} ids, so no object is loaded or dirty
+	 * checked. The versions of versioned entities are incremented if
+	 * {@link #isVersionIncremented()} is <code>true</code>. Hibernate evicts the entity class
+	 * from the second-level cache when the statements are executed.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 * @param assignments a {@link Map} from property names to their new values. Only properties
+	 * of the entity class that are not the primary key nor collections can be assigned. It
+	 * cannot be null nor empty.
+	 * @param evict if <code>true</code>, the updated objects are evicted from the current
+	 * session.
+	 * @return the number of updated rows.
+	 */
+	public int updateByIds(Collection<K> ids, Map<String, ?> assignments, boolean evict) {
+
+		if (ids == null) {
+			throw new IllegalArgumentException("Parameter ids cannot be null");
+		}
+
+		final long start = operationStarted(DAOOperation.UPDATE_BY_IDS);
+		String hql = null;
+		int count = 0;
+		Throwable failure = null;
+
+		try {
+
+			final List<String> properties = checkAssignments(assignments);
+			hql = createUpdateByIdsHQL(properties);
+			final Session session = getSession();
+
+			for (Object[] chunk : partitionIds(ids)) {
+
+				final Query query = session.createQuery(hql);
+
+				for (int i = 0; i < properties.size(); i++) {
+					final String property = properties.get(i);
+					query.setParameter("value" + i, assignments.get(property),
+							getClassMetadata().getPropertyType(property));
+				}
+
+				query.setParameterList("ids", chunk);
+				count += query.executeUpdate();
+
+			}
+
+			invalidateCachedEntities(ids);
+
+			if (evict) {
+				evictAll(ids);
+			}
+
+			evictQueryCache();
+
+			return count;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.UPDATE_BY_IDS, start, count, failure, hql, ids,
+					assignments, evict);
+		}
+
+	}
+
+	/**
+	 * Updates the objects matched by a given {@link DetachedCriteria} without loading them.
+	 * Their primary key values are read by {@link #findIds(byte[], Serializable, int)},
+	 * {@link #getMaximumInListSize()} at a time, and each chunk is updated using
+	 * {@link #updateByIds(Collection, Map, boolean)}. As each chunk starts after the last primary
+	 * key value of the previous one, assignments that change whether an object matches the
+	 * criteria do not make other objects be skipped. <code>criteria</code> itself is not changed.
+	 * 
+	 * @param criteria a {@link DetachedCriteria} for this entity class. It cannot be null.
+	 * @param assignments a {@link Map} from property names to their new values.
+	 * @param evict if <code>true</code>, the updated objects are evicted from the current
+	 * session.
+	 * @return the number of updated rows.
+	 */
+	public int updateByCriteria(DetachedCriteria criteria, Map<String, ?> assignments,
+			boolean evict) {
+
+		if (criteria == null) {
+			throw new IllegalArgumentException("Parameter criteria cannot be null");
+		}
+
+		final long start = operationStarted(DAOOperation.UPDATE_BY_CRITERIA);
+		int count = 0;
+		Throwable failure = null;
+
+		try {
+
+			checkAssignments(assignments);
+
+			final byte[] serialized = SerializationHelper.serialize(criteria);
+			final int chunkSize = getIdChunkSize();
+			List<K> ids;
+			K last = null;
+
+			do {
+
+				ids = findIds(serialized, last, chunkSize);
+
+				if (ids.isEmpty() == false) {
+					count += updateByIds(ids, assignments, evict);
+					last = ids.get(ids.size() - 1);
+				}
+
+			}
+			while (ids.size() == chunkSize);
+
+			return count;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.UPDATE_BY_CRITERIA, start, count, failure, criteria,
+					assignments, evict);
+		}
+
+	}
+
+	/**
+	 * Updates the objects that match a given example, as created by
+	 * {@link #createExample(Object)}, without loading them.
+	 * 
+	 * @param example a <code>T</code>. It cannot be null.
+	 * @param assignments a {@link Map} from property names to their new values.
+	 * @param evict if <code>true</code>, the updated objects are evicted from the current
+	 * session.
+	 * @return the number of updated rows.
+	 * @see #updateByCriteria(DetachedCriteria, Map, boolean)
+	 */
+	public int updateByExample(T example, Map<String, ?> assignments, boolean evict) {
+
+		if (example == null) {
+			throw new IllegalArgumentException("Parameter example cannot be null");
+		}
+
+		final DetachedCriteria criteria = DetachedCriteria.forClass(getEntityClass());
+		criteria.add(createExample(example));
+
+		return updateByCriteria(criteria, assignments, evict);
+
+	}
+
+	/**
+	 * Checks the assignments of a bulk update.
+	 * 
+	 * @param assignments a {@link Map}.
+	 * @return a {@link List} with the assigned property names.
+	 */
+	private List<String> checkAssignments(Map<String, ?> assignments) {
+
+		if (assignments == null || assignments.isEmpty()) {
+			throw new IllegalArgumentException("At least one assignment must be given");
+		}
+
+		final ClassMetadata metadata = getClassMetadata();
+		final List<String> propertyNames = Arrays.asList(metadata.getPropertyNames());
+		final List<String> properties = new ArrayList<String>(assignments.keySet());
+
+		for (String property : properties) {
+
+			if (propertyNames.contains(property) == false
+					|| metadata.getPropertyType(property).isCollectionType()) {
+				throw new IllegalArgumentException("Property " + property + " of "
+						+ metadata.getEntityName() + " cannot be updated");
+			}
+
+		}
+
+		return properties;
+
+	}
+
+	/**
+	 * Creates the HQL query used to update objects given a list of primary key values.
+	 * 
+	 * @param properties the names of the assigned properties.
+	 * @return a {@link String}.
+	 */
+	private String createUpdateByIdsHQL(List<String> properties) {
+
+		final ClassMetadata metadata = getClassMetadata();
+		final StringBuilder builder = new StringBuilder("update ");
+
+		if (versionIncremented && metadata.isVersioned()) {
+			builder.append("versioned ");
+		}
+
+		builder.append(getEntityClass().getName()).append(" set ");
+
+		for (int i = 0; i < properties.size(); i++) {
+
+			if (i > 0) {
+				builder.append(", ");
+			}
+
+			builder.append(properties.get(i)).append(" = :value").append(i);
+
+		}
+
+		builder.append(" where ").append(getPrimaryKeyPropertyName()).append(" in (:ids)");
+
+		return builder.toString();
+
+	}
+
+	/**
+	 * Evicts the objects with the given primary key values from the current session and from
+	 * the second-level cache.
+	 * 
+	 * @param ids a {@link Collection} of <code>K</code>. It cannot be null.
+	 */
+	protected void evictAll(Collection<K> ids) {
+
+		final Session session = getSession();
+		final SessionFactory sessionFactory = getSessionFactory();
+		final Class<T> entityClass = getEntityClass();
+
+		for (K id : ids) {
+
+			final T object = findInSession(id);
+
+			if (object != null) {
+				session.evict(object);
+			}
+
+			sessionFactory.evict(entityClass, id);
+
+		}
+
 	}
 
 	public void evict(T object) {
@@ -90,7 +604,23 @@ public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHi
 	}
 
 	public void save(T object) {
-		getSession().save(object);
+
+		final long start = operationStarted(DAOOperation.SAVE);
+		Throwable failure = null;
+
+		try {
+			getSession().save(object);
+			countChanged(1);
+			evictQueryCache();
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.SAVE, start, 1, failure, null, object);
+		}
+
 	}
 	
 	public T update(T object) {
@@ -98,10 +628,333 @@ public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHi
 		if (isPersistent(object) == false) {
 			throw new IllegalArgumentException("Object not persistent");
 		}
+
+		final long start = operationStarted(DAOOperation.UPDATE);
+		Throwable failure = null;
+
+		try {
+			getSession().update(object);
+			invalidateCachedObject(object);
+			evictQueryCache();
+			return object;
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.UPDATE, start, 1, failure, null, object);
+		}
 		
-		getSession().update(object);
-		return object;
-		
+	}
+
+	/**
+	 * Saves a collection of objects in their iteration order. The session is flushed and cleared
+	 * each {@link #getBatchSize()} objects, so the persistence context does not grow with the
+	 * number of objects and the inserts can be sent to the database using JDBC batching, as long
+	 * as the <code>hibernate.jdbc.batch_size</code> property is set. When the objects cascade to
+	 * associated entities, the <code>hibernate.order_inserts</code> and
+	 * <code>hibernate.order_updates</code> properties should be set to <code>true</code> too, so
+	 * Hibernate groups the statements of each table and they are not split into one JDBC batch
+	 * per object. As the session is cleared, every object attached to it becomes detached, not
+	 * only the saved ones.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return an <code>int</code> array containing the number of objects written in each batch.
+	 */
+	public int[] saveAll(Collection<T> objects) {
+		return writeAll(objects, BatchOperation.SAVE);
+	}
+
+	/**
+	 * Updates a collection of objects, flushing and clearing the session each
+	 * {@link #getBatchSize()} objects. All objects must be persistent. As the session is cleared,
+	 * every object attached to it becomes detached, not only the updated ones.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return an <code>int</code> array containing the number of objects written in each batch.
+	 * @throws IllegalArgumentException if any object is not persistent.
+	 * @see #saveAll(Collection)
+	 */
+	public int[] updateAll(Collection<T> objects) {
+
+		if (objects != null) {
+
+			for (T object : objects) {
+
+				if (isPersistent(object) == false) {
+					throw new IllegalArgumentException("Object not persistent");
+				}
+
+			}
+
+		}
+
+		return writeAll(objects, BatchOperation.UPDATE);
+
+	}
+
+	/**
+	 * Deletes a collection of objects, flushing and clearing the session each
+	 * {@link #getBatchSize()} objects. As the session is cleared, every object attached to it
+	 * becomes detached, not only the deleted ones.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return an <code>int</code> array containing the number of objects written in each batch.
+	 * @see #saveAll(Collection)
+	 */
+	public int[] deleteAll(Collection<T> objects) {
+		return writeAll(objects, BatchOperation.DELETE);
+	}
+
+	/**
+	 * Inserts a collection of objects or updates the rows with the same primary key values,
+	 * using one statement generated by the configured {@link UpsertDialect} for each chunk of
+	 * objects, instead of finding each object and then saving or updating it. The statements are
+	 * executed through the connection of the current session, which is flushed before. The
+	 * objects must have ids, must be mapped to a single table and their collections are not
+	 * written. When more than one object has the same id, only the last one is written.
+	 * Afterwards, the objects with the same ids are evicted from the current session and from
+	 * the second-level cache. If the dialect does not tell inserted rows from updated ones, a
+	 * {@link MaintainedCountStrategy} is reset instead of being notified of the inserts. When the
+	 * ids are generated by the database, the inserted ids do not come from its sequence, so the
+	 * sequence is moved past them if the dialect implements {@link IdentityReservingDialect}.
+	 * With other dialects, such as PostgreSQL ones that do not, later inserts may be given ids
+	 * already in use. HSQLDB identity columns are advanced by the database itself.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @return an {@link UpsertResult}.
+	 * @throws IllegalStateException if the dialect does not implement {@link UpsertDialect}.
+	 */
+	public UpsertResult upsertAll(Collection<T> objects) {
+
+		if (objects == null) {
+			throw new IllegalArgumentException("Parameter objects cannot be null");
+		}
+
+		final long start = operationStarted(DAOOperation.UPSERT_ALL);
+		int rows = 0;
+		Throwable failure = null;
+
+		try {
+
+			final Dialect dialect = ((SessionFactoryImplementor) getSessionFactory()).getDialect();
+
+			if (dialect instanceof UpsertDialect == false) {
+				throw new IllegalStateException("Dialect " + dialect.getClass().getName()
+						+ " does not implement " + UpsertDialect.class.getName());
+			}
+
+			final Session session = getSession();
+			session.flush();
+
+			final UpsertResult result = getMultiRowInserter().upsert(objects,
+					(SessionImplementor) session, (UpsertDialect) dialect);
+			rows = result.getWritten();
+
+			if (result.getInserted() != UpsertResult.UNKNOWN) {
+				countChanged(result.getInserted());
+			}
+			else if (getCountStrategy() instanceof MaintainedCountStrategy) {
+				((MaintainedCountStrategy) getCountStrategy()).reset();
+			}
+
+			final List<K> ids = new ArrayList<K>(objects.size());
+
+			for (T object : objects) {
+				ids.add(getIdentifier(object));
+			}
+
+			invalidateCachedEntities(ids);
+
+			evictAll(ids);
+			evictQueryCache();
+
+			return result;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(DAOOperation.UPSERT_ALL, start, rows, failure, null, objects);
+		}
+
+	}
+
+	/**
+	 * Returns the {@link MultiRowInserter} of the entity class, creating it if needed.
+	 * 
+	 * @return a {@link MultiRowInserter}.
+	 */
+	MultiRowInserter<T> getMultiRowInserter() {
+
+		MultiRowInserter<T> inserter = multiRowInserter;
+
+		if (inserter == null) {
+			inserter = new MultiRowInserter<T>((AbstractEntityPersister) getClassMetadata());
+			multiRowInserter = inserter;
+		}
+
+		return inserter;
+
+	}
+
+	/**
+	 * Writes the given objects in batches, in their iteration order. Grouping the statements by
+	 * table is left to Hibernate's <code>hibernate.order_inserts</code> and
+	 * <code>hibernate.order_updates</code> properties.
+	 * 
+	 * @param objects a {@link Collection} of <code>T</code>. It cannot be null.
+	 * @param operation a {@link BatchOperation}.
+	 * @return an <code>int</code> array containing the number of objects written in each batch.
+	 */
+	private int[] writeAll(Collection<T> objects, BatchOperation operation) {
+
+		if (objects == null) {
+			throw new IllegalArgumentException("Parameter objects cannot be null");
+		}
+
+		final long start = operationStarted(operation.operation);
+		int rows = 0;
+		Throwable failure = null;
+
+		try {
+
+			final List<T> list = new ArrayList<T>(objects);
+			final int size = list.size();
+			final int[] counts = new int[(size + batchSize - 1) / batchSize];
+			final Session session = getSession();
+
+			for (int batch = 0; batch < counts.length; batch++) {
+
+				final int first = batch * batchSize;
+				final int last = Math.min(first + batchSize, size);
+
+				for (T object : list.subList(first, last)) {
+
+					switch (operation) {
+
+						case SAVE:
+							session.save(object);
+							break;
+
+						case UPDATE:
+							session.update(object);
+							invalidateCachedObject(object);
+							break;
+
+						case DELETE:
+							session.delete(object);
+							invalidateCachedObject(object);
+							break;
+
+					}
+
+				}
+
+				session.flush();
+				session.clear();
+				counts[batch] = last - first;
+				rows += counts[batch];
+
+				if (operation == BatchOperation.SAVE) {
+					countChanged(counts[batch]);
+				}
+				else if (operation == BatchOperation.DELETE) {
+					countChanged(-counts[batch]);
+				}
+
+			}
+
+			evictQueryCache();
+
+			return counts;
+
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			operationFinished(operation.operation, start, rows, failure, null, objects);
+		}
+
+	}
+
+	/**
+	 * Opens a {@link BulkWriter} for this entity class, which writes objects through a new
+	 * {@link StatelessSession} instead of {@link #getSession()}. The writer must be closed after
+	 * use.
+	 * 
+	 * @return a {@link BulkWriter}.
+	 */
+	public BulkWriter<T, K> openBulkWriter() {
+		return new BulkWriter<T, K>(this, getSessionFactory().openStatelessSession());
+	}
+
+	/**
+	 * Opens a {@link BulkWriter} for this entity class that uses a given JDBC {@link Connection}.
+	 * The writer must be closed after use, but the connection is not closed by it.
+	 * 
+	 * @param connection a {@link Connection}. It cannot be null.
+	 * @return a {@link BulkWriter}.
+	 */
+	public BulkWriter<T, K> openBulkWriter(Connection connection) {
+
+		if (connection == null) {
+			throw new IllegalArgumentException("Parameter connection cannot be null");
+		}
+
+		return new BulkWriter<T, K>(this, getSessionFactory().openStatelessSession(connection));
+
+	}
+
+	/**
+	 * Returns the value of the <code>versionIncremented</code> property. If it is
+	 * <code>true</code>, the default, the bulk update methods increment the versions of the
+	 * updated objects of versioned entities.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	public boolean isVersionIncremented() {
+		return versionIncremented;
+	}
+
+	/**
+	 * Changes the value of the <code>versionIncremented</code> property.
+	 * 
+	 * @param versionIncremented a <code>boolean</code>.
+	 */
+	public void setVersionIncremented(boolean versionIncremented) {
+		this.versionIncremented = versionIncremented;
+	}
+
+	/**
+	 * Returns the value of the <code>batchSize</code> property.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Changes the value of the <code>batchSize</code> property. For best results, it should be
+	 * equal to the value of the <code>hibernate.jdbc.batch_size</code> property or a multiple of
+	 * it.
+	 * 
+	 * @param batchSize an <code>int</code>. It must be greater than zero.
+	 */
+	public void setBatchSize(int batchSize) {
+
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Parameter batchSize must be greater than zero");
+		}
+
+		this.batchSize = batchSize;
+
 	}
 
 	/**
@@ -121,4 +974,21 @@ public abstract class WriteableDAOImpl<T, K extends Serializable> extends BaseHi
 		
 	}
 
+	/**
+	 * Write operations supported by {@link WriteableDAOImpl#writeAll(Collection, BatchOperation)}.
+	 */
+	private static enum BatchOperation {
+
+		SAVE(DAOOperation.SAVE_ALL),
+		UPDATE(DAOOperation.UPDATE_ALL),
+		DELETE(DAOOperation.DELETE_ALL);
+
+		final private DAOOperation operation;
+
+		private BatchOperation(DAOOperation operation) {
+			this.operation = operation;
+		}
+
+	}
+
 }
@@ -0,0 +1,38 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * Interface implemented by {@link Dialect}s that can read the approximate number of rows in a
+ * table from the database statistics.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface ApproximateRowCountDialect {
+
+	/**
+	 * Returns a SQL query that returns a single number: the approximate number of rows in a
+	 * given table. The number must be negative if the database has no statistics for it, so the
+	 * exact number is counted instead.
+	 * 
+	 * @param tableName a {@link String} containing a table name, possibly quoted and
+	 * schema-qualified.
+	 * @return a {@link String}.
+	 */
+	String getApproximateRowCountString(String tableName);
+
+}
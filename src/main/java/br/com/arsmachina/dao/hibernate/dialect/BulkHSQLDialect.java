@@ -0,0 +1,186 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.sql.Types;
+
+import org.hibernate.dialect.HSQLDialect;
+
+/**
+ * {@link HSQLDialect} that implements {@link MultiRowInsertDialect} and {@link UpsertDialect}.
+ * Both the multi-row <code>insert</code> statements and the <code>merge</code> statements
+ * returned by {@link #getUpsertString(String, String[], String[], int[], int)} require HSQLDB
+ * 2.0 or later.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class BulkHSQLDialect extends HSQLDialect implements MultiRowInsertDialect,
+		UpsertDialect {
+
+	/**
+	 * Maximum number of rows written by a single statement.
+	 */
+	final public static int MAXIMUM_ROWS = 1000;
+
+	/**
+	 * Maximum number of parameters of a single statement.
+	 */
+	final public static int MAXIMUM_PARAMETERS = 1000;
+
+	/**
+	 * Length of the character and binary types the upsert parameters are cast to.
+	 */
+	final public static int PARAMETER_LENGTH = 16777216;
+
+	/**
+	 * Precision of the numeric types the upsert parameters are cast to.
+	 */
+	final public static int PARAMETER_PRECISION = 128;
+
+	/**
+	 * Scale of the numeric types the upsert parameters are cast to.
+	 */
+	final public static int PARAMETER_SCALE = 32;
+
+	/**
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMultiRowInsertString(java.lang.String, java.lang.String[], int)
+	 */
+	public String getMultiRowInsertString(String tableName, String[] columns, int rows) {
+		return Statements.multiRowInsert(tableName, columns, rows);
+	}
+
+	/**
+	 * Returns a <code>merge</code> statement whose source is a <code>values</code> list. HSQLDB
+	 * cannot infer the types of the parameters of a <code>values</code> list, so each one is
+	 * cast to the type returned by {@link #getParameterTypeName(int)}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#getUpsertString(java.lang.String, java.lang.String[], java.lang.String[], int[], int)
+	 */
+	public String getUpsertString(String tableName, String[] keyColumns, String[] columns,
+			int[] sqlTypes, int rows) {
+
+		Statements.check(columns, rows);
+
+		if (sqlTypes == null || sqlTypes.length != columns.length) {
+			throw new IllegalArgumentException("One SQL type must be given for each column");
+		}
+
+		final String[] updated = Statements.nonKeyColumns(keyColumns, columns);
+		final String[] parameters = new String[columns.length];
+		final StringBuffer buffer = new StringBuffer("merge into ").append(tableName);
+
+		for (int i = 0; i < parameters.length; i++) {
+			parameters[i] = "cast(? as " + getParameterTypeName(sqlTypes[i]) + ")";
+		}
+
+		buffer.append(" target using (values ");
+		Statements.appendParameters(buffer, parameters, rows);
+		buffer.append(") as source (");
+		Statements.appendColumns(buffer, columns, "");
+		buffer.append(") on ");
+
+		for (int i = 0; i < keyColumns.length; i++) {
+
+			if (i > 0) {
+				buffer.append(" and ");
+			}
+
+			buffer.append("target.").append(keyColumns[i]);
+			buffer.append(" = source.").append(keyColumns[i]);
+
+		}
+
+		if (updated.length > 0) {
+
+			buffer.append(" when matched then update set ");
+
+			for (int i = 0; i < updated.length; i++) {
+
+				if (i > 0) {
+					buffer.append(", ");
+				}
+
+				buffer.append("target.").append(updated[i]);
+				buffer.append(" = source.").append(updated[i]);
+
+			}
+
+		}
+
+		buffer.append(" when not matched then insert (");
+		Statements.appendColumns(buffer, columns, "");
+		buffer.append(") values (");
+		Statements.appendColumns(buffer, columns, "source.");
+
+		return buffer.append(')').toString();
+
+	}
+
+	/**
+	 * Returns the type an upsert parameter of a given SQL type is cast to. Character and binary
+	 * types get {@link #PARAMETER_LENGTH} and numeric types get {@link #PARAMETER_PRECISION} and
+	 * {@link #PARAMETER_SCALE}, so values are not truncated before they reach the columns.
+	 * 
+	 * @param sqlType a {@link Types} code.
+	 * @return a {@link String}.
+	 */
+	protected String getParameterTypeName(int sqlType) {
+
+		if (sqlType == Types.DECIMAL || sqlType == Types.NUMERIC) {
+			return "decimal(" + PARAMETER_PRECISION + ", " + PARAMETER_SCALE + ")";
+		}
+
+		return getTypeName(sqlType, PARAMETER_LENGTH, PARAMETER_PRECISION, PARAMETER_SCALE);
+
+	}
+
+	/**
+	 * Returns <code>false</code>, as <code>merge</code> does not tell which rows were inserted.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#isUpsertReturningInserted()
+	 */
+	public boolean isUpsertReturningInserted() {
+		return false;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_ROWS}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#getMaximumUpsertRows()
+	 */
+	public int getMaximumUpsertRows() {
+		return MAXIMUM_ROWS;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_ROWS}. The number of rows of each statement is also limited by
+	 * {@link #getMaximumParameters()} divided by the number of columns.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMaximumInsertRows()
+	 */
+	public int getMaximumInsertRows() {
+		return MAXIMUM_ROWS;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_PARAMETERS}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMaximumParameters()
+	 */
+	public int getMaximumParameters() {
+		return MAXIMUM_PARAMETERS;
+	}
+
+}
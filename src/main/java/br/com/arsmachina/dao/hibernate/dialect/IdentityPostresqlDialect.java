@@ -19,23 +19,161 @@ import org.hibernate.id.IdentityGenerator;
 import org.hibernate.id.SequenceGenerator;
 
 /**
- * {@link PostgreSQLDialect} that defines {@link IdentityGenerator} as the default id value
- * generator instead of {@link SequenceGenerator}. In addition, it fixes the "wrong sequence name
- * in backticks-scaped table name bug".
+ * {@link PostgreSQLDialect} that defines {@link ReturningIdentityGenerator}, an
+ * {@link IdentityGenerator} that reads the generated ids with <code>insert ... returning</code>,
+ * as the default id value generator instead of {@link SequenceGenerator}. In addition, it fixes
+ * the "wrong sequence name in backticks-scaped table name bug" and reads approximate row counts
+ * from <code>pg_class</code>. <code>insert ... returning</code> requires PostgreSQL 8.2 or
+ * later.
  * 
  * @author Thiago H. de Paula Figueiredo
  */
-public class IdentityPostresqlDialect extends PostgreSQLDialect {
+public class IdentityPostresqlDialect extends PostgreSQLDialect implements
+		ApproximateRowCountDialect, ReturningDialect, MultiRowInsertDialect, UpsertDialect,
+		IdentityReservingDialect {
 
 	/**
-	 * Returns {@link IdentityGenerator} instead of {@link SequenceGenerator}.
+	 * Maximum number of parameters of a statement in the PostgreSQL protocol.
+	 */
+	final public static int MAXIMUM_PARAMETERS = 32767;
+
+	/**
+	 * Maximum number of rows inserted by a single statement. Larger statements take longer to
+	 * parse than the round trips they save.
+	 */
+	final public static int MAXIMUM_INSERT_ROWS = 1000;
+
+	/**
+	 * Returns {@link ReturningIdentityGenerator} instead of {@link SequenceGenerator}.
 	 * 
 	 * @see org.hibernate.dialect.PostgreSQLDialect#getNativeIdentifierGeneratorClass()
 	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public Class getNativeIdentifierGeneratorClass() {
-		return IdentityGenerator.class;
+		return ReturningIdentityGenerator.class;
+	}
+
+	/**
+	 * Appends a <code>returning</code> clause to the insert statement.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.ReturningDialect#appendReturning(java.lang.String, java.lang.String[])
+	 */
+	public String appendReturning(String insertSQL, String... columns) {
+
+		if (columns == null || columns.length == 0) {
+			throw new IllegalArgumentException("At least one column must be given");
+		}
+
+		final StringBuffer buffer = new StringBuffer(insertSQL).append(" returning ");
+
+		for (int i = 0; i < columns.length; i++) {
+
+			if (i > 0) {
+				buffer.append(", ");
+			}
+
+			buffer.append(columns[i]);
+
+		}
+
+		return buffer.toString();
+
+	}
+
+	/**
+	 * Returns <code>false</code>, as the generated values are returned by the
+	 * <code>returning</code> clause.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.ReturningDialect#isReturningGeneratedKeys()
+	 */
+	public boolean isReturningGeneratedKeys() {
+		return false;
+	}
+
+	/**
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMultiRowInsertString(java.lang.String, java.lang.String[], int)
+	 */
+	public String getMultiRowInsertString(String tableName, String[] columns, int rows) {
+		return Statements.multiRowInsert(tableName, columns, rows);
+	}
+
+	/**
+	 * Returns a multi-row <code>insert ... on conflict (keys) do update</code> statement that
+	 * returns <code>xmax = 0</code>, which is only true for inserted rows. It requires
+	 * PostgreSQL 9.5 or later. The parameter types are inferred from the columns, so
+	 * <code>sqlTypes</code> is not used.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#getUpsertString(java.lang.String, java.lang.String[], java.lang.String[], int[], int)
+	 */
+	public String getUpsertString(String tableName, String[] keyColumns, String[] columns,
+			int[] sqlTypes, int rows) {
+
+		final String[] updated = Statements.nonKeyColumns(keyColumns, columns);
+		final StringBuffer buffer =
+			new StringBuffer(Statements.multiRowInsert(tableName, columns, rows));
+
+		buffer.append(" on conflict (");
+		Statements.appendColumns(buffer, keyColumns, "");
+		buffer.append(')');
+
+		if (updated.length == 0) {
+			buffer.append(" do nothing");
+		}
+		else {
+
+			buffer.append(" do update set ");
+
+			for (int i = 0; i < updated.length; i++) {
+
+				if (i > 0) {
+					buffer.append(", ");
+				}
+
+				buffer.append(updated[i]).append(" = excluded.").append(updated[i]);
+
+			}
+
+		}
+
+		return buffer.append(" returning (xmax = 0)").toString();
+
+	}
+
+	/**
+	 * Returns <code>true</code>.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#isUpsertReturningInserted()
+	 */
+	public boolean isUpsertReturningInserted() {
+		return true;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_INSERT_ROWS}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.UpsertDialect#getMaximumUpsertRows()
+	 */
+	public int getMaximumUpsertRows() {
+		return MAXIMUM_INSERT_ROWS;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_INSERT_ROWS}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMaximumInsertRows()
+	 */
+	public int getMaximumInsertRows() {
+		return MAXIMUM_INSERT_ROWS;
+	}
+
+	/**
+	 * Returns {@link #MAXIMUM_PARAMETERS}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect#getMaximumParameters()
+	 */
+	public int getMaximumParameters() {
+		return MAXIMUM_PARAMETERS;
 	}
 
 	/**
@@ -45,12 +183,80 @@ public class IdentityPostresqlDialect extends PostgreSQLDialect {
 	 */
 	@Override
 	public String getIdentitySelectString(String table, String column, int type) {
-		table = table.replace("\"", "");
 		return new StringBuffer().append("select currval('")
-			.append(table)
+			.append(getSerialSequenceName(table, column))
+			.append("')")
+			.toString();
+	}
+
+	/**
+	 * Returns a query that calls <code>nextval()</code> on the sequence of a <code>serial</code>
+	 * column, named as returned by {@link #getSerialSequenceName(String, String)}, once for each
+	 * row of <code>generate_series(1, ?)</code>. Identity columns declared as
+	 * <code>generated always</code> do not accept the reserved values.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.IdentityReservingDialect#getReserveIdentitiesString(java.lang.String, java.lang.String)
+	 */
+	public String getReserveIdentitiesString(String tableName, String column) {
+		return new StringBuffer().append("select nextval('")
+			.append(getSerialSequenceName(tableName, column))
+			.append("') from generate_series(1, ?)")
+			.toString();
+	}
+
+	/**
+	 * Returns a query that calls <code>setval()</code> on the sequence of a <code>serial</code>
+	 * column with the largest of the maximum value of the column and <code>nextval()</code>,
+	 * so the sequence never moves backwards.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.IdentityReservingDialect#getAdvanceIdentityString(java.lang.String, java.lang.String)
+	 */
+	public String getAdvanceIdentityString(String tableName, String column) {
+
+		final String sequence = getSerialSequenceName(tableName, column);
+
+		return new StringBuffer().append("select setval('")
+			.append(sequence)
+			.append("', greatest(max(")
+			.append(column)
+			.append("), nextval('")
+			.append(sequence)
+			.append("'))) from ")
+			.append(tableName)
+			.toString();
+
+	}
+
+	/**
+	 * Returns the name of the sequence PostgreSQL creates for a <code>serial</code> column:
+	 * <code>table_column_seq</code>, without the quotes of the table name.
+	 * 
+	 * @param table a {@link String} containing the table name.
+	 * @param column a {@link String} containing the column name.
+	 * @return a {@link String}.
+	 */
+	public static String getSerialSequenceName(String table, String column) {
+		return new StringBuffer().append(table.replace("\"", ""))
 			.append('_')
 			.append(column)
-			.append("_seq')")
+			.append("_seq")
+			.toString();
+	}
+
+	/**
+	 * Returns a query that reads <code>reltuples</code> from <code>pg_class</code>, which is
+	 * updated by <code>VACUUM</code>, <code>ANALYZE</code> and autovacuum. Before PostgreSQL 14,
+	 * <code>reltuples</code> is 0 for tables that were never vacuumed or analyzed, so the query
+	 * returns -1 when <code>relpages</code> is 0. That also happens for empty tables, which are
+	 * cheap to count exactly.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.ApproximateRowCountDialect#getApproximateRowCountString(java.lang.String)
+	 */
+	public String getApproximateRowCountString(String tableName) {
+		return new StringBuffer().append("select case when relpages = 0 then -1 ")
+			.append("else cast(reltuples as bigint) end from pg_class where oid = '")
+			.append(tableName.replace("'", "''"))
+			.append("'::regclass")
 			.toString();
 	}
 
@@ -0,0 +1,53 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * Interface implemented by {@link Dialect}s that can reserve values of the sequence that
+ * generates an identity column. The reserved values can then be inserted explicitly, so many
+ * rows can be inserted by a single statement and still each object gets the id of its own row.
+ * It is used by {@link br.com.arsmachina.dao.hibernate.BulkWriter#load(java.util.Collection)}.
+ * In addition, the sequence can be moved past values inserted explicitly, as done by
+ * {@link br.com.arsmachina.dao.hibernate.WriteableDAOImpl#upsertAll(java.util.Collection)}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface IdentityReservingDialect {
+
+	/**
+	 * Returns a query with a single integer parameter, the number of values, that reserves that
+	 * many values of the sequence that generates a given identity column and returns them, one
+	 * per row.
+	 * 
+	 * @param tableName a {@link String} containing a table name.
+	 * @param column a {@link String} containing the name of the identity column.
+	 * @return a {@link String}.
+	 */
+	String getReserveIdentitiesString(String tableName, String column);
+
+	/**
+	 * Returns a query without parameters that moves the sequence that generates a given
+	 * identity column past the largest value in that column, so the values inserted explicitly
+	 * are not generated again. Values of the sequence may be skipped.
+	 * 
+	 * @param tableName a {@link String} containing a table name.
+	 * @param column a {@link String} containing the name of the identity column.
+	 * @return a {@link String}.
+	 */
+	String getAdvanceIdentityString(String tableName, String column);
+
+}
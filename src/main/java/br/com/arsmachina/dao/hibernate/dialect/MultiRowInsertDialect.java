@@ -0,0 +1,52 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * Interface implemented by {@link Dialect}s that can insert many rows with a single statement.
+ * It is used by {@link br.com.arsmachina.dao.hibernate.BulkWriter#load(java.util.Collection)}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface MultiRowInsertDialect {
+
+	/**
+	 * Returns an insert statement with one list of parameters for each row.
+	 * 
+	 * @param tableName a {@link String} containing a table name.
+	 * @param columns the names of the columns. At least one must be given.
+	 * @param rows the number of rows. It must be greater than zero and not greater than
+	 * {@link #getMaximumInsertRows()}.
+	 * @return a {@link String}.
+	 */
+	String getMultiRowInsertString(String tableName, String[] columns, int rows);
+
+	/**
+	 * Returns the maximum number of rows inserted by a single statement.
+	 * 
+	 * @return an <code>int</code> greater than zero.
+	 */
+	int getMaximumInsertRows();
+
+	/**
+	 * Returns the maximum number of parameters of a single statement.
+	 * 
+	 * @return an <code>int</code> greater than zero.
+	 */
+	int getMaximumParameters();
+
+}
@@ -0,0 +1,78 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.type.Type;
+
+/**
+ * {@link SequenceStyleGenerator} that reads ids from the sequence of a <code>serial</code>
+ * column before the inserts, so Hibernate does not need to execute each insert immediately and
+ * inserts can be batched. If no <code>sequence_name</code> parameter is given, the sequence name
+ * is <code>table_column_seq</code>, as in {@link IdentityPostresqlDialect}. The
+ * <code>increment_size</code> parameter defaults to
+ * {@link PooledSequencePostgresqlDialect#getAllocationSize()} (or
+ * {@link #DEFAULT_ALLOCATION_SIZE} with other dialects).
+ * 
+ * <p>
+ * With the default allocation size of 1, each id is read with one sequence call and no
+ * optimizer is used, which is safe with the sequences created for <code>serial</code> columns.
+ * With a larger allocation size, the <code>pooled</code> optimizer allocates ids in blocks. It
+ * requires the sequence to be incremented by the allocation size, for example with
+ * <code>alter sequence table_id_seq increment by 50</code>; otherwise, different sessions
+ * generate the same ids.
+ * </p>
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	/**
+	 * Default number of ids allocated by each sequence call, matching the increment of the
+	 * sequences of <code>serial</code> columns.
+	 */
+	final public static int DEFAULT_ALLOCATION_SIZE = 1;
+
+	@Override
+	public void configure(Type type, Properties params, Dialect dialect)
+			throws MappingException {
+
+		final Properties properties = new Properties();
+		properties.putAll(params);
+
+		if (properties.getProperty(SEQUENCE_PARAM) == null) {
+			properties.setProperty(SEQUENCE_PARAM, IdentityPostresqlDialect.getSerialSequenceName(
+					params.getProperty(TABLE), params.getProperty(PK)));
+		}
+
+		if (properties.getProperty(INCREMENT_PARAM) == null) {
+
+			final int allocationSize = dialect instanceof PooledSequencePostgresqlDialect
+					? ((PooledSequencePostgresqlDialect) dialect).getAllocationSize()
+					: DEFAULT_ALLOCATION_SIZE;
+
+			properties.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+
+		}
+
+		super.configure(type, properties, dialect);
+
+	}
+
+}
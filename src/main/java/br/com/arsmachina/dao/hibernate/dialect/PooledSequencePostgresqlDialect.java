@@ -0,0 +1,55 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.id.IdentityGenerator;
+
+/**
+ * {@link IdentityPostresqlDialect} that defines {@link PooledSequenceGenerator} as the default
+ * id value generator instead of {@link IdentityGenerator}. Hibernate must execute an insert as
+ * soon as an object with an identity id is saved, which disables JDBC insert batching. With
+ * this dialect, ids are read from the sequences of the <code>serial</code> columns,
+ * {@link #getAllocationSize()} ids per sequence call, and inserts are batched according to the
+ * <code>hibernate.jdbc.batch_size</code> property. Subclasses can return a larger allocation
+ * size once the increments of the sequences are changed to match it.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class PooledSequencePostgresqlDialect extends IdentityPostresqlDialect {
+
+	/**
+	 * Returns {@link PooledSequenceGenerator} instead of {@link IdentityGenerator}.
+	 * 
+	 * @see org.hibernate.dialect.PostgreSQLDialect#getNativeIdentifierGeneratorClass()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class getNativeIdentifierGeneratorClass() {
+		return PooledSequenceGenerator.class;
+	}
+
+	/**
+	 * Returns the number of ids allocated by each sequence call when the mapping does not
+	 * define the <code>increment_size</code> parameter. It must be equal to the increment of the
+	 * sequences. This implementation returns
+	 * {@link PooledSequenceGenerator#DEFAULT_ALLOCATION_SIZE}.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getAllocationSize() {
+		return PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE;
+	}
+
+}
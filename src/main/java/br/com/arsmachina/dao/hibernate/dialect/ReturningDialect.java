@@ -0,0 +1,49 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * Interface implemented by {@link Dialect}s whose insert statements can return the values
+ * generated for the inserted rows, such as identity column values, avoiding another query to
+ * read them.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface ReturningDialect {
+
+	/**
+	 * Appends to an insert statement the clause that makes it return the values of some columns
+	 * of the inserted rows. The statement must then be executed as a query. If it inserts more
+	 * than one row, one row is returned for each inserted one.
+	 * 
+	 * @param insertSQL a {@link String} containing an insert statement.
+	 * @param columns the names of the returned columns. At least one must be given.
+	 * @return a {@link String}.
+	 */
+	String appendReturning(String insertSQL, String... columns);
+
+	/**
+	 * Tells whether the generated values are read through the generated keys of the JDBC
+	 * statements instead of the clause appended by {@link #appendReturning(String, String...)}.
+	 * In this case, that method is not invoked and the insert statements are executed as
+	 * updates.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	boolean isReturningGeneratedKeys();
+
+}
@@ -0,0 +1,156 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates SQL statements shared by the dialects of this package.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+final class Statements {
+
+	private Statements() {
+	}
+
+	/**
+	 * Returns an <code>insert into table (columns) values (?, ...), (?, ...)</code> statement.
+	 * 
+	 * @param tableName a {@link String}.
+	 * @param columns a {@link String} array.
+	 * @param rows an <code>int</code>.
+	 * @return a {@link String}.
+	 */
+	static String multiRowInsert(String tableName, String[] columns, int rows) {
+
+		check(columns, rows);
+
+		final StringBuffer buffer = new StringBuffer("insert into ").append(tableName).append(" (");
+		appendColumns(buffer, columns, "");
+		buffer.append(") values ");
+		appendParameters(buffer, columns.length, rows);
+
+		return buffer.toString();
+
+	}
+
+	/**
+	 * Checks the arguments of the statement generation methods.
+	 * 
+	 * @param columns a {@link String} array.
+	 * @param rows an <code>int</code>.
+	 */
+	static void check(String[] columns, int rows) {
+
+		if (columns == null || columns.length == 0) {
+			throw new IllegalArgumentException("At least one column must be given");
+		}
+
+		if (rows <= 0) {
+			throw new IllegalArgumentException("Parameter rows must be greater than zero");
+		}
+
+	}
+
+	/**
+	 * Appends a comma-separated list of columns, each one preceded by a prefix.
+	 * 
+	 * @param buffer a {@link StringBuffer}.
+	 * @param columns a {@link String} array.
+	 * @param prefix a {@link String}.
+	 */
+	static void appendColumns(StringBuffer buffer, String[] columns, String prefix) {
+
+		for (int i = 0; i < columns.length; i++) {
+
+			if (i > 0) {
+				buffer.append(", ");
+			}
+
+			buffer.append(prefix).append(columns[i]);
+
+		}
+
+	}
+
+	/**
+	 * Appends <code>rows</code> comma-separated lists of <code>columns</code> parameters.
+	 * 
+	 * @param buffer a {@link StringBuffer}.
+	 * @param columns an <code>int</code>.
+	 * @param rows an <code>int</code>.
+	 */
+	static void appendParameters(StringBuffer buffer, int columns, int rows) {
+
+		final String[] parameters = new String[columns];
+		Arrays.fill(parameters, "?");
+
+		appendParameters(buffer, parameters, rows);
+
+	}
+
+	/**
+	 * Appends <code>rows</code> comma-separated lists of parameter expressions.
+	 * 
+	 * @param buffer a {@link StringBuffer}.
+	 * @param parameters a {@link String} array with the expression of each parameter.
+	 * @param rows an <code>int</code>.
+	 */
+	static void appendParameters(StringBuffer buffer, String[] parameters, int rows) {
+
+		for (int i = 0; i < rows; i++) {
+
+			if (i > 0) {
+				buffer.append(", ");
+			}
+
+			buffer.append('(');
+
+			for (int j = 0; j < parameters.length; j++) {
+
+				if (j > 0) {
+					buffer.append(", ");
+				}
+
+				buffer.append(parameters[j]);
+
+			}
+
+			buffer.append(')');
+
+		}
+
+	}
+
+	/**
+	 * Returns the columns that are not key columns.
+	 * 
+	 * @param keyColumns a {@link String} array.
+	 * @param columns a {@link String} array.
+	 * @return a {@link String} array.
+	 */
+	static String[] nonKeyColumns(String[] keyColumns, String[] columns) {
+
+		final List<String> result = new ArrayList<String>(Arrays.asList(columns));
+		result.removeAll(Arrays.asList(keyColumns));
+
+		return result.toArray(new String[result.size()]);
+
+	}
+
+}
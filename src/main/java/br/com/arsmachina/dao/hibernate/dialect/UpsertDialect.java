@@ -0,0 +1,70 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * Interface implemented by {@link Dialect}s that can insert rows or update the existing ones
+ * with the same primary key using a single statement. It is used by
+ * {@link br.com.arsmachina.dao.hibernate.WriteableDAOImpl#upsertAll(java.util.Collection)}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface UpsertDialect {
+
+	/**
+	 * Returns a statement that inserts some rows or updates the existing rows with the same key
+	 * values. It has one list of parameters for each row, with the values of
+	 * <code>columns</code> in order. The rows have distinct key values.
+	 * 
+	 * @param tableName a {@link String} containing a table name.
+	 * @param keyColumns the names of the primary key columns. At least one must be given.
+	 * @param columns the names of all the columns, including the key ones.
+	 * @param sqlTypes the {@link java.sql.Types} codes of <code>columns</code>, for databases
+	 * that cannot infer the types of the parameters.
+	 * @param rows the number of rows. It must be greater than zero and not greater than
+	 * {@link #getMaximumUpsertRows()}.
+	 * @return a {@link String}.
+	 */
+	String getUpsertString(String tableName, String[] keyColumns, String[] columns,
+			int[] sqlTypes, int rows);
+
+	/**
+	 * Returns <code>true</code> if the statements returned by
+	 * {@link #getUpsertString(String, String[], String[], int[], int)} are executed as queries
+	 * that return, for each written row, one boolean column that is <code>true</code> for
+	 * inserted rows. Otherwise, they are executed as updates and only the total number of
+	 * written rows is known.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	boolean isUpsertReturningInserted();
+
+	/**
+	 * Returns the maximum number of rows written by a single statement.
+	 * 
+	 * @return an <code>int</code> greater than zero.
+	 */
+	int getMaximumUpsertRows();
+
+	/**
+	 * Returns the maximum number of parameters of a single statement.
+	 * 
+	 * @return an <code>int</code> greater than zero.
+	 */
+	int getMaximumParameters();
+
+}
@@ -0,0 +1,73 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import org.hibernate.metadata.ClassMetadata;
+
+import br.com.arsmachina.dao.hibernate.DAOMonitor;
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+
+/**
+ * {@link DAOMonitor} that notifies other monitors in the given order, so more than one monitor
+ * can be set in a DAO.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class CompositeDAOMonitor implements DAOMonitor {
+
+	final private DAOMonitor[] monitors;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param monitors a {@link DAOMonitor}<code>...</code>. None of them can be null.
+	 */
+	public CompositeDAOMonitor(DAOMonitor... monitors) {
+
+		if (monitors == null) {
+			throw new IllegalArgumentException("Parameter monitors cannot be null");
+		}
+
+		for (DAOMonitor monitor : monitors) {
+
+			if (monitor == null) {
+				throw new IllegalArgumentException("Parameter monitors cannot contain null");
+			}
+
+		}
+
+		this.monitors = monitors.clone();
+
+	}
+
+	public void operationStarted(ClassMetadata classMetadata, DAOOperation operation) {
+
+		for (DAOMonitor monitor : monitors) {
+			monitor.operationStarted(classMetadata, operation);
+		}
+
+	}
+
+	public void operationFinished(ClassMetadata classMetadata, DAOOperation operation,
+			long elapsedNanos, int rows, Throwable failure, Object query, Object[] arguments) {
+
+		for (DAOMonitor monitor : monitors) {
+			monitor.operationFinished(classMetadata, operation, elapsedNanos, rows, failure,
+					query, arguments);
+		}
+
+	}
+
+}
@@ -0,0 +1,272 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hibernate.metadata.ClassMetadata;
+
+import br.com.arsmachina.dao.hibernate.DAOMonitor;
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+
+/**
+ * {@link DAOMonitor} that keeps one {@link OperationMetrics} for each entity class and
+ * {@link DAOOperation}. The metrics are created in the first invocation of each operation and,
+ * if an {@link MBeanServer} was given, registered in it with the name
+ * <code>&lt;domain&gt;:type=DAOMetrics,entity=&lt;entity name&gt;,operation=&lt;operation&gt;</code>.
+ * They can be exported to other metric registries through {@link #getOperationMetrics()}.
+ * After the metrics are created, recording an operation does not allocate memory nor block.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class DAOMetrics implements DAOMonitor {
+
+	/**
+	 * Default JMX domain.
+	 */
+	final public static String DEFAULT_DOMAIN = "br.com.arsmachina.dao.hibernate";
+
+	final private static DAOOperation[] OPERATIONS = DAOOperation.values();
+
+	final private ConcurrentMap<String, AtomicReferenceArray<OperationMetrics>> metrics =
+		new ConcurrentHashMap<String, AtomicReferenceArray<OperationMetrics>>();
+
+	final private MBeanServer mbeanServer;
+
+	final private String domain;
+
+	/**
+	 * Constructor that does not register the metrics as MBeans.
+	 */
+	public DAOMetrics() {
+		mbeanServer = null;
+		domain = null;
+	}
+
+	/**
+	 * Constructor that registers the metrics as MBeans in a given {@link MBeanServer}.
+	 * 
+	 * @param mbeanServer an {@link MBeanServer}. It cannot be null.
+	 * @param domain the domain of the MBean names. It cannot be null.
+	 */
+	public DAOMetrics(MBeanServer mbeanServer, String domain) {
+
+		if (mbeanServer == null) {
+			throw new IllegalArgumentException("Parameter mbeanServer cannot be null");
+		}
+
+		if (domain == null) {
+			throw new IllegalArgumentException("Parameter domain cannot be null");
+		}
+
+		this.mbeanServer = mbeanServer;
+		this.domain = domain;
+
+	}
+
+	/**
+	 * Returns a {@link DAOMetrics} that registers the metrics in the platform
+	 * {@link MBeanServer} using {@link #DEFAULT_DOMAIN}.
+	 * 
+	 * @return a {@link DAOMetrics}.
+	 */
+	public static DAOMetrics createPlatformMetrics() {
+		return new DAOMetrics(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+	}
+
+	/**
+	 * Does nothing.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.DAOMonitor#operationStarted(ClassMetadata,
+	 * DAOOperation)
+	 */
+	public void operationStarted(ClassMetadata classMetadata, DAOOperation operation) {
+	}
+
+	/**
+	 * Records the operation in the corresponding {@link OperationMetrics}.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.DAOMonitor#operationFinished(ClassMetadata,
+	 * DAOOperation, long, int, Throwable, Object, Object[])
+	 */
+	public void operationFinished(ClassMetadata classMetadata, DAOOperation operation,
+			long elapsedNanos, int rows, Throwable failure, Object query, Object[] arguments) {
+		getOperationMetrics(classMetadata.getEntityName(), operation).record(elapsedNanos, rows,
+				failure != null);
+	}
+
+	/**
+	 * Returns the metrics of a given entity and operation, creating them if needed.
+	 * 
+	 * @param entityName a {@link String}. It cannot be null.
+	 * @param operation a {@link DAOOperation}. It cannot be null.
+	 * @return an {@link OperationMetrics}.
+	 */
+	public OperationMetrics getOperationMetrics(String entityName, DAOOperation operation) {
+
+		AtomicReferenceArray<OperationMetrics> entityMetrics = metrics.get(entityName);
+
+		if (entityMetrics == null) {
+
+			entityMetrics = new AtomicReferenceArray<OperationMetrics>(OPERATIONS.length);
+
+			final AtomicReferenceArray<OperationMetrics> existing =
+				metrics.putIfAbsent(entityName, entityMetrics);
+
+			if (existing != null) {
+				entityMetrics = existing;
+			}
+
+		}
+
+		final int index = operation.ordinal();
+		OperationMetrics operationMetrics = entityMetrics.get(index);
+
+		if (operationMetrics == null) {
+
+			operationMetrics = new OperationMetrics(entityName, operation);
+
+			if (entityMetrics.compareAndSet(index, null, operationMetrics)) {
+				register(operationMetrics);
+			}
+			else {
+				operationMetrics = entityMetrics.get(index);
+			}
+
+		}
+
+		return operationMetrics;
+
+	}
+
+	/**
+	 * Returns the metrics of all the operations invoked so far.
+	 * 
+	 * @return a {@link List} of {@link OperationMetrics}.
+	 */
+	public List<OperationMetrics> getOperationMetrics() {
+
+		final List<OperationMetrics> list = new ArrayList<OperationMetrics>();
+
+		for (AtomicReferenceArray<OperationMetrics> entityMetrics : metrics.values()) {
+
+			for (int i = 0; i < entityMetrics.length(); i++) {
+
+				final OperationMetrics operationMetrics = entityMetrics.get(i);
+
+				if (operationMetrics != null) {
+					list.add(operationMetrics);
+				}
+
+			}
+
+		}
+
+		return list;
+
+	}
+
+	/**
+	 * Discards the values recorded in all metrics.
+	 */
+	public void reset() {
+
+		for (OperationMetrics operationMetrics : getOperationMetrics()) {
+			operationMetrics.reset();
+		}
+
+	}
+
+	/**
+	 * Unregisters all the MBeans registered by this object.
+	 */
+	public void unregister() {
+
+		if (mbeanServer == null) {
+			return;
+		}
+
+		for (OperationMetrics operationMetrics : getOperationMetrics()) {
+
+			try {
+
+				final ObjectName name = getObjectName(operationMetrics);
+
+				if (mbeanServer.isRegistered(name)) {
+					mbeanServer.unregisterMBean(name);
+				}
+
+			}
+			catch (JMException e) {
+				throw new IllegalStateException("Could not unregister the metrics of "
+						+ operationMetrics.getEntityName(), e);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Returns the name of the MBean of a given {@link OperationMetrics}.
+	 * 
+	 * @param operationMetrics an {@link OperationMetrics}.
+	 * @return an {@link ObjectName}.
+	 * @throws JMException if the name is not valid.
+	 */
+	protected ObjectName getObjectName(OperationMetrics operationMetrics) throws JMException {
+
+		return new ObjectName(domain + ":type=DAOMetrics,entity="
+				+ operationMetrics.getEntityName() + ",operation="
+				+ operationMetrics.getOperationName());
+
+	}
+
+	/**
+	 * Registers a newly created {@link OperationMetrics} as an MBean. If an MBean with the same
+	 * name already exists, for example one registered by another {@link DAOMetrics} instance, the
+	 * metrics are kept but not registered.
+	 * 
+	 * @param operationMetrics an {@link OperationMetrics}.
+	 */
+	private void register(OperationMetrics operationMetrics) {
+
+		if (mbeanServer == null) {
+			return;
+		}
+
+		try {
+			mbeanServer.registerMBean(operationMetrics, getObjectName(operationMetrics));
+		}
+		catch (InstanceAlreadyExistsException e) {
+			// the existing MBean is kept.
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("Could not register the metrics of "
+					+ operationMetrics.getEntityName(), e);
+		}
+
+	}
+
+}
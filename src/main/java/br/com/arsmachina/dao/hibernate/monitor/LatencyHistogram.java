@@ -0,0 +1,201 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of non-negative <code>long</code> values, such as latencies in
+ * nanoseconds. Values are counted in log-linear buckets: values up to 31 have their own bucket
+ * and each power of two above it is divided into 16 buckets, so the value returned by
+ * {@link #getPercentile(double)} is at most 6.25% above the actual one. All buckets are
+ * allocated in the constructor, so {@link #record(long)} does not allocate memory nor block.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of bits used to select the bucket inside a power of two.
+	 */
+	final private static int SUB_BUCKET_BITS = 4;
+
+	final private static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Number of buckets needed to cover all positive <code>long</code> values.
+	 */
+	final private static int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	final private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	final private AtomicLong count = new AtomicLong();
+
+	final private AtomicLong sum = new AtomicLong();
+
+	final private AtomicLong maximum = new AtomicLong();
+
+	/**
+	 * Records a value. Negative values are recorded as zero.
+	 * 
+	 * @param value a <code>long</code>.
+	 */
+	public void record(long value) {
+
+		if (value < 0) {
+			value = 0;
+		}
+
+		counts.incrementAndGet(index(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+
+		long current = maximum.get();
+
+		while (value > current && maximum.compareAndSet(current, value) == false) {
+			current = maximum.get();
+		}
+
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the sum of the recorded values.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getSum() {
+		return sum.get();
+	}
+
+	/**
+	 * Returns the greatest recorded value or zero if none was recorded.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getMaximum() {
+		return maximum.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values or zero if none was recorded.
+	 * 
+	 * @return a <code>double</code>.
+	 */
+	public double getMean() {
+
+		final long count = getCount();
+		return count > 0 ? (double) getSum() / count : 0;
+
+	}
+
+	/**
+	 * Returns the value below or at which a given percentage of the recorded values are. The
+	 * returned value is the highest one in its bucket, but never greater than
+	 * {@link #getMaximum()}.
+	 * 
+	 * @param percentile a <code>double</code> between 0 and 100.
+	 * @return a <code>long</code> or zero if no value was recorded.
+	 */
+	public long getPercentile(double percentile) {
+
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Parameter percentile must be between 0 and 100");
+		}
+
+		long total = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			total += counts.get(i);
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long accumulated = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+
+			accumulated += counts.get(i);
+
+			if (accumulated >= rank) {
+				return Math.min(highestValue(i), getMaximum());
+			}
+
+		}
+
+		return getMaximum();
+
+	}
+
+	/**
+	 * Discards all recorded values. Values recorded concurrently with this method may be lost.
+	 */
+	public void reset() {
+
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+
+		count.set(0);
+		sum.set(0);
+		maximum.set(0);
+
+	}
+
+	/**
+	 * Returns the index of the bucket of a given value.
+	 * 
+	 * @param value a non-negative <code>long</code>.
+	 * @return an <code>int</code>.
+	 */
+	static int index(long value) {
+
+		final int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+
+	}
+
+	/**
+	 * Returns the highest value counted in a given bucket.
+	 * 
+	 * @param index an <code>int</code>.
+	 * @return a <code>long</code>.
+	 */
+	static long highestValue(int index) {
+
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+
+		final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		final long lowest = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+
+		return lowest + (1L << shift) - 1;
+
+	}
+
+}
@@ -0,0 +1,157 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+
+/**
+ * Metrics of one {@link DAOOperation} of one entity class: number of calls and errors, number
+ * of rows and a {@link LatencyHistogram}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+	final private static long NANOS_PER_MICRO = 1000;
+
+	final private String entityName;
+
+	final private DAOOperation operation;
+
+	final private LatencyHistogram latency = new LatencyHistogram();
+
+	final private AtomicLong errors = new AtomicLong();
+
+	final private AtomicLong rows = new AtomicLong();
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param entityName a {@link String}. It cannot be null.
+	 * @param operation a {@link DAOOperation}. It cannot be null.
+	 */
+	public OperationMetrics(String entityName, DAOOperation operation) {
+
+		if (entityName == null) {
+			throw new IllegalArgumentException("Parameter entityName cannot be null");
+		}
+
+		if (operation == null) {
+			throw new IllegalArgumentException("Parameter operation cannot be null");
+		}
+
+		this.entityName = entityName;
+		this.operation = operation;
+
+	}
+
+	/**
+	 * Records one invocation of the operation.
+	 * 
+	 * @param elapsedNanos the time spent in the operation, in nanoseconds.
+	 * @param rows the number of objects returned or written by the operation.
+	 * @param failed <code>true</code> if the operation threw an exception.
+	 */
+	public void record(long elapsedNanos, int rows, boolean failed) {
+
+		latency.record(elapsedNanos);
+
+		if (rows > 0) {
+			this.rows.addAndGet(rows);
+		}
+
+		if (failed) {
+			errors.incrementAndGet();
+		}
+
+	}
+
+	/**
+	 * Returns the operation.
+	 * 
+	 * @return a {@link DAOOperation}.
+	 */
+	public DAOOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the latency histogram, in nanoseconds.
+	 * 
+	 * @return a {@link LatencyHistogram}.
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	public String getEntityName() {
+		return entityName;
+	}
+
+	public String getOperationName() {
+		return operation.name();
+	}
+
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	public long getErrors() {
+		return errors.get();
+	}
+
+	public long getRows() {
+		return rows.get();
+	}
+
+	public double getMeanMicros() {
+		return latency.getMean() / NANOS_PER_MICRO;
+	}
+
+	public long getMaxMicros() {
+		return latency.getMaximum() / NANOS_PER_MICRO;
+	}
+
+	public long getP50Micros() {
+		return latency.getPercentile(50) / NANOS_PER_MICRO;
+	}
+
+	public long getP95Micros() {
+		return latency.getPercentile(95) / NANOS_PER_MICRO;
+	}
+
+	public long getP99Micros() {
+		return latency.getPercentile(99) / NANOS_PER_MICRO;
+	}
+
+	public long getP999Micros() {
+		return latency.getPercentile(99.9) / NANOS_PER_MICRO;
+	}
+
+	public void reset() {
+		latency.reset();
+		errors.set(0);
+		rows.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return entityName + "." + operation + ": " + getCalls() + " calls, " + getErrors()
+				+ " errors, " + getRows() + " rows, p99 " + getP99Micros() + " us";
+	}
+
+}
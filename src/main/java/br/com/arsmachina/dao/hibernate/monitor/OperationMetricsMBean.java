@@ -0,0 +1,106 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+/**
+ * Management interface of {@link OperationMetrics}. Latencies are given in microseconds.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface OperationMetricsMBean {
+
+	/**
+	 * Returns the name of the entity class.
+	 * 
+	 * @return a {@link String}.
+	 */
+	String getEntityName();
+
+	/**
+	 * Returns the name of the operation.
+	 * 
+	 * @return a {@link String}.
+	 */
+	String getOperationName();
+
+	/**
+	 * Returns the number of invocations of the operation.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getCalls();
+
+	/**
+	 * Returns the number of invocations that threw an exception.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getErrors();
+
+	/**
+	 * Returns the total number of objects returned or written by the operation.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getRows();
+
+	/**
+	 * Returns the mean latency.
+	 * 
+	 * @return a <code>double</code>.
+	 */
+	double getMeanMicros();
+
+	/**
+	 * Returns the maximum latency.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getMaxMicros();
+
+	/**
+	 * Returns the median latency.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getP50Micros();
+
+	/**
+	 * Returns the 95th percentile of the latency.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getP95Micros();
+
+	/**
+	 * Returns the 99th percentile of the latency.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getP99Micros();
+
+	/**
+	 * Returns the 99.9th percentile of the latency.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	long getP999Micros();
+
+	/**
+	 * Discards all recorded values.
+	 */
+	void reset();
+
+}
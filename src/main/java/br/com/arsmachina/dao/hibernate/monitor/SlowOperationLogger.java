@@ -0,0 +1,371 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.EntityMode;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.hql.QueryTranslator;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.loader.OuterJoinLoader;
+import org.hibernate.loader.criteria.CriteriaLoader;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.OuterJoinLoadable;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.com.arsmachina.dao.SortCriterion;
+import br.com.arsmachina.dao.hibernate.DAOMonitor;
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+
+/**
+ * {@link DAOMonitor} that logs, with level <code>WARN</code>, the operations that take more
+ * than a given threshold. Each message contains the entity name, the operation, its arguments
+ * (including pagination arguments, {@link SortCriterion}s and the non-association property
+ * values of example objects) and the SQL generated for its {@link org.hibernate.Criteria} or
+ * HQL query. The number of messages per second is limited, so a burst of slow operations does
+ * not slow down the application even more; the number of operations not logged is reported in
+ * the next message.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class SlowOperationLogger implements DAOMonitor {
+
+	/**
+	 * Default threshold, in milliseconds.
+	 */
+	final public static long DEFAULT_THRESHOLD = 1000;
+
+	/**
+	 * Default maximum number of messages logged per second.
+	 */
+	final public static int DEFAULT_MAXIMUM_LOGS_PER_SECOND = 10;
+
+	/**
+	 * Maximum number of elements of collections and arrays included in the messages.
+	 */
+	final private static int MAXIMUM_ELEMENTS = 20;
+
+	final private static long NANOS_PER_MILLI = 1000000;
+
+	final private static long NANOS_PER_SECOND = 1000000000;
+
+	final private Logger logger;
+
+	final private long thresholdNanos;
+
+	final private long nanosPerLog;
+
+	final private long burstNanos;
+
+	/**
+	 * Theoretical arrival time of the next message, as in the generic cell rate algorithm.
+	 */
+	final private AtomicLong nextLogTime = new AtomicLong(Long.MIN_VALUE);
+
+	final private AtomicLong suppressed = new AtomicLong();
+
+	/**
+	 * Constructor that uses {@link #DEFAULT_THRESHOLD} and
+	 * {@link #DEFAULT_MAXIMUM_LOGS_PER_SECOND}.
+	 */
+	public SlowOperationLogger() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Constructor that takes a threshold and uses {@link #DEFAULT_MAXIMUM_LOGS_PER_SECOND}.
+	 * 
+	 * @param threshold the threshold in milliseconds. It cannot be negative.
+	 */
+	public SlowOperationLogger(long threshold) {
+		this(threshold, DEFAULT_MAXIMUM_LOGS_PER_SECOND);
+	}
+
+	/**
+	 * Constructor that takes a threshold and the maximum number of messages per second.
+	 * 
+	 * @param threshold the threshold in milliseconds. It cannot be negative.
+	 * @param maximumLogsPerSecond an <code>int</code>. It must be greater than zero.
+	 */
+	public SlowOperationLogger(long threshold, int maximumLogsPerSecond) {
+		this(threshold, maximumLogsPerSecond, LoggerFactory.getLogger(SlowOperationLogger.class));
+	}
+
+	/**
+	 * Constructor that takes a threshold, the maximum number of messages per second and the
+	 * {@link Logger} used.
+	 * 
+	 * @param threshold the threshold in milliseconds. It cannot be negative.
+	 * @param maximumLogsPerSecond an <code>int</code>. It must be greater than zero.
+	 * @param logger a {@link Logger}. It cannot be null.
+	 */
+	public SlowOperationLogger(long threshold, int maximumLogsPerSecond, Logger logger) {
+
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Parameter threshold cannot be negative");
+		}
+
+		if (maximumLogsPerSecond <= 0) {
+			throw new IllegalArgumentException(
+					"Parameter maximumLogsPerSecond must be greater than zero");
+		}
+
+		if (logger == null) {
+			throw new IllegalArgumentException("Parameter logger cannot be null");
+		}
+
+		this.thresholdNanos = threshold * NANOS_PER_MILLI;
+		this.nanosPerLog = NANOS_PER_SECOND / maximumLogsPerSecond;
+		this.burstNanos = NANOS_PER_SECOND - nanosPerLog;
+		this.logger = logger;
+
+	}
+
+	/**
+	 * Does nothing.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.DAOMonitor#operationStarted(ClassMetadata,
+	 * DAOOperation)
+	 */
+	public void operationStarted(ClassMetadata classMetadata, DAOOperation operation) {
+	}
+
+	/**
+	 * Logs the operation if it took more than the threshold and the rate limit allows it.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.DAOMonitor#operationFinished(ClassMetadata,
+	 * DAOOperation, long, int, Throwable, Object, Object[])
+	 */
+	public void operationFinished(ClassMetadata classMetadata, DAOOperation operation,
+			long elapsedNanos, int rows, Throwable failure, Object query, Object[] arguments) {
+
+		if (elapsedNanos < thresholdNanos || logger.isWarnEnabled() == false) {
+			return;
+		}
+
+		if (acquire() == false) {
+			suppressed.incrementAndGet();
+			return;
+		}
+
+		final StringBuilder builder = new StringBuilder("Slow DAO operation: ");
+		builder.append(classMetadata.getEntityName()).append('.').append(operation);
+		builder.append(" took ").append(elapsedNanos / NANOS_PER_MILLI).append(" ms, ");
+		builder.append(rows).append(" rows");
+
+		if (failure != null) {
+			builder.append(", failed with ").append(failure);
+		}
+
+		if (arguments != null && arguments.length > 0) {
+
+			builder.append("\n  arguments: ");
+
+			for (int i = 0; i < arguments.length; i++) {
+
+				if (i > 0) {
+					builder.append(", ");
+				}
+
+				appendValue(builder, arguments[i], classMetadata);
+
+			}
+
+		}
+
+		if (query != null) {
+			builder.append("\n  query: ").append(toSQL(query, classMetadata));
+		}
+
+		final long count = suppressed.getAndSet(0);
+
+		if (count > 0) {
+			builder.append("\n  (").append(count).append(" slow operations not logged)");
+		}
+
+		logger.warn(builder.toString());
+
+	}
+
+	/**
+	 * Returns the SQL generated for a {@link org.hibernate.Criteria} or HQL query. If it cannot
+	 * be obtained, the result of the <code>toString()</code> method of the query is returned.
+	 * 
+	 * @param query a {@link CriteriaImpl} or HQL {@link String}.
+	 * @param classMetadata the {@link ClassMetadata} of the DAO entity class.
+	 * @return a {@link String}.
+	 */
+	protected String toSQL(Object query, ClassMetadata classMetadata) {
+
+		try {
+
+			if (query instanceof CriteriaImpl) {
+
+				final CriteriaImpl criteria = (CriteriaImpl) query;
+				final SessionImplementor session = criteria.getSession();
+				final SessionFactoryImplementor factory = session.getFactory();
+				final String entityName =
+					factory.getImplementors(criteria.getEntityOrClassName())[0];
+				final CriteriaLoader loader =
+					new CriteriaLoader((OuterJoinLoadable) factory.getEntityPersister(entityName),
+							factory, criteria, entityName, session.getEnabledFilters());
+
+				// getSQLString() is protected in Hibernate 3.3.
+				final Method method = OuterJoinLoader.class.getDeclaredMethod("getSQLString");
+				method.setAccessible(true);
+
+				return (String) method.invoke(loader);
+
+			}
+			else if (query instanceof String && classMetadata instanceof AbstractEntityPersister) {
+
+				final String hql = (String) query;
+				final SessionFactoryImplementor factory =
+					((AbstractEntityPersister) classMetadata).getFactory();
+				final QueryTranslator translator =
+					factory.getSettings().getQueryTranslatorFactory().createQueryTranslator(hql,
+							hql, Collections.EMPTY_MAP, factory);
+				translator.compile(Collections.EMPTY_MAP, false);
+
+				return translator.getSQLString();
+
+			}
+
+		}
+		catch (Exception e) {
+			// the query is logged as it is.
+		}
+
+		return query.toString();
+
+	}
+
+	/**
+	 * Appends a value to a message. Objects of the entity class are represented by their
+	 * property values, {@link SortCriterion}s by their property and direction, and only the
+	 * first elements of collections and arrays are appended.
+	 * 
+	 * @param builder a {@link StringBuilder}.
+	 * @param value an {@link Object}.
+	 * @param classMetadata the {@link ClassMetadata} of the DAO entity class.
+	 */
+	@SuppressWarnings("unchecked")
+	protected void appendValue(StringBuilder builder, Object value, ClassMetadata classMetadata) {
+
+		if (value instanceof Object[]) {
+			appendElements(builder, Arrays.asList((Object[]) value).iterator(),
+					((Object[]) value).length, classMetadata);
+		}
+		else if (value instanceof Collection) {
+			final Collection<Object> collection = (Collection<Object>) value;
+			appendElements(builder, collection.iterator(), collection.size(), classMetadata);
+		}
+		else if (value instanceof SortCriterion) {
+			final SortCriterion sortCriterion = (SortCriterion) value;
+			builder.append(sortCriterion.getProperty());
+			builder.append(sortCriterion.isAscending() ? " asc" : " desc");
+		}
+		else if (value != null
+				&& classMetadata.getMappedClass(EntityMode.POJO).isInstance(value)) {
+			appendEntity(builder, value, classMetadata);
+		}
+		else {
+			builder.append(value);
+		}
+
+	}
+
+	private void appendElements(StringBuilder builder, Iterator<Object> iterator, int size,
+			ClassMetadata classMetadata) {
+
+		builder.append('[');
+
+		for (int i = 0; i < MAXIMUM_ELEMENTS && iterator.hasNext(); i++) {
+
+			if (i > 0) {
+				builder.append(", ");
+			}
+
+			appendValue(builder, iterator.next(), classMetadata);
+
+		}
+
+		if (size > MAXIMUM_ELEMENTS) {
+			builder.append(", ... (").append(size).append(" elements)");
+		}
+
+		builder.append(']');
+
+	}
+
+	private void appendEntity(StringBuilder builder, Object object, ClassMetadata classMetadata) {
+
+		final String[] names = classMetadata.getPropertyNames();
+		final Type[] types = classMetadata.getPropertyTypes();
+		final Object[] values = classMetadata.getPropertyValues(object, EntityMode.POJO);
+
+		builder.append(classMetadata.getEntityName()).append('(');
+		builder.append(classMetadata.getIdentifierPropertyName()).append('=');
+		builder.append(classMetadata.getIdentifier(object, EntityMode.POJO));
+
+		for (int i = 0; i < names.length; i++) {
+
+			if (values[i] != null && types[i].isAssociationType() == false) {
+				builder.append(", ").append(names[i]).append('=').append(values[i]);
+			}
+
+		}
+
+		builder.append(')');
+
+	}
+
+	/**
+	 * Returns <code>true</code> if a message can be logged now.
+	 * 
+	 * @return a <code>boolean</code>.
+	 */
+	private boolean acquire() {
+
+		while (true) {
+
+			final long now = System.nanoTime();
+			final long next = nextLogTime.get();
+
+			if (next != Long.MIN_VALUE && next - now > burstNanos) {
+				return false;
+			}
+
+			final long start = next == Long.MIN_VALUE || next - now < 0 ? now : next;
+
+			if (nextLogTime.compareAndSet(next, start + nanosPerLog)) {
+				return true;
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+/**
+ * Exception thrown by {@link StatementBudgetMonitor} when a DAO operation or unit of work
+ * executes more SQL statements than its budget.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	final private long statements;
+
+	final private int budget;
+
+	/**
+	 * Single constructor of this class.
+	 * 
+	 * @param message a {@link String}.
+	 * @param statements the number of statements executed.
+	 * @param budget the maximum number of statements allowed.
+	 */
+	public StatementBudgetExceededException(String message, long statements, int budget) {
+		super(message);
+		this.statements = statements;
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns the number of statements executed.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Returns the maximum number of statements allowed.
+	 * 
+	 * @return an <code>int</code>.
+	 */
+	public int getBudget() {
+		return budget;
+	}
+
+}
@@ -0,0 +1,297 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.com.arsmachina.dao.hibernate.DAOMonitor;
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+
+/**
+ * {@link DAOMonitor} that counts the SQL statements executed by each DAO operation and by each
+ * unit of work delimited by {@link #beginUnitOfWork(String, int)} and {@link #endUnitOfWork()},
+ * and flags the ones that exceed a budget. It is meant to catch N+1 select problems, such as
+ * lazy collections loaded one by one while iterating the result of
+ * {@link br.com.arsmachina.dao.hibernate.ReadableDAOImpl#findAll()}, which can only be seen at
+ * the unit of work level.
+ * <p>
+ * Violations are always logged and kept in {@link #getViolations()}. If
+ * <code>failOnViolation</code> is <code>true</code>, a
+ * {@link StatementBudgetExceededException} is thrown too, so tests fail.
+ * </p>
+ * <p>
+ * Statements are counted per thread by {@link StatementCountingInterceptor}, which must be
+ * installed. Alternatively, the monitor can use the {@link Statistics} of a
+ * {@link SessionFactory}, which are global, so the counts are only exact when a single thread
+ * uses the session factory, as in most tests.
+ * </p>
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class StatementBudgetMonitor implements DAOMonitor {
+
+	final private static Logger LOGGER = LoggerFactory.getLogger(StatementBudgetMonitor.class);
+
+	final private ThreadLocal<Counters> counters = new ThreadLocal<Counters>() {
+
+		@Override
+		protected Counters initialValue() {
+			return new Counters();
+		}
+
+	};
+
+	final private List<String> violations = new CopyOnWriteArrayList<String>();
+
+	final private int[] budgets = new int[DAOOperation.values().length];
+
+	final private Statistics statistics;
+
+	final private boolean failOnViolation;
+
+	/**
+	 * Constructor that uses {@link StatementCountingInterceptor} to count statements.
+	 * 
+	 * @param budget the default maximum number of statements per operation. It cannot be
+	 * negative.
+	 * @param failOnViolation if <code>true</code>, violations throw a
+	 * {@link StatementBudgetExceededException}.
+	 */
+	public StatementBudgetMonitor(int budget, boolean failOnViolation) {
+		this(null, budget, failOnViolation);
+	}
+
+	/**
+	 * Constructor that uses the {@link Statistics} of a given {@link SessionFactory} to count
+	 * statements. Statistics are enabled by this constructor.
+	 * 
+	 * @param sessionFactory a {@link SessionFactory}. If it is null,
+	 * {@link StatementCountingInterceptor} is used instead.
+	 * @param budget the default maximum number of statements per operation. It cannot be
+	 * negative.
+	 * @param failOnViolation if <code>true</code>, violations throw a
+	 * {@link StatementBudgetExceededException}.
+	 */
+	public StatementBudgetMonitor(SessionFactory sessionFactory, int budget,
+			boolean failOnViolation) {
+
+		if (budget < 0) {
+			throw new IllegalArgumentException("Parameter budget cannot be negative");
+		}
+
+		if (sessionFactory != null) {
+			statistics = sessionFactory.getStatistics();
+			statistics.setStatisticsEnabled(true);
+		}
+		else {
+			statistics = null;
+		}
+
+		for (int i = 0; i < budgets.length; i++) {
+			budgets[i] = budget;
+		}
+
+		this.failOnViolation = failOnViolation;
+
+	}
+
+	/**
+	 * Changes the maximum number of statements of a given operation.
+	 * 
+	 * @param operation a {@link DAOOperation}. It cannot be null.
+	 * @param budget an <code>int</code>. It cannot be negative.
+	 */
+	public void setBudget(DAOOperation operation, int budget) {
+
+		if (operation == null) {
+			throw new IllegalArgumentException("Parameter operation cannot be null");
+		}
+
+		if (budget < 0) {
+			throw new IllegalArgumentException("Parameter budget cannot be negative");
+		}
+
+		budgets[operation.ordinal()] = budget;
+
+	}
+
+	/**
+	 * Returns the maximum number of statements of a given operation.
+	 * 
+	 * @param operation a {@link DAOOperation}. It cannot be null.
+	 * @return an <code>int</code>.
+	 */
+	public int getBudget(DAOOperation operation) {
+		return budgets[operation.ordinal()];
+	}
+
+	public void operationStarted(ClassMetadata classMetadata, DAOOperation operation) {
+		counters.get().push(getStatementCount());
+	}
+
+	public void operationFinished(ClassMetadata classMetadata, DAOOperation operation,
+			long elapsedNanos, int rows, Throwable failure, Object query, Object[] arguments) {
+
+		final Counters counters = this.counters.get();
+
+		if (counters.depth == 0) {
+			return;
+		}
+
+		final long statements = getStatementCount() - counters.pop();
+		final int budget = budgets[operation.ordinal()];
+
+		if (statements > budget) {
+			violation(classMetadata.getEntityName() + "." + operation + " executed "
+					+ statements + " statements (budget: " + budget + ")", statements, budget,
+					failure == null);
+		}
+
+	}
+
+	/**
+	 * Starts counting the statements of a unit of work in the current thread, such as a request
+	 * or a test method. Units of work cannot be nested.
+	 * 
+	 * @param name the name used in the violation messages.
+	 * @param budget the maximum number of statements of the unit of work.
+	 */
+	public void beginUnitOfWork(String name, int budget) {
+
+		final Counters counters = this.counters.get();
+
+		if (counters.unitOfWork != null) {
+			throw new IllegalStateException("Unit of work " + counters.unitOfWork
+					+ " was not ended");
+		}
+
+		if (budget < 0) {
+			throw new IllegalArgumentException("Parameter budget cannot be negative");
+		}
+
+		counters.unitOfWork = name != null ? name : "unit of work";
+		counters.unitOfWorkBudget = budget;
+		counters.unitOfWorkStart = getStatementCount();
+
+	}
+
+	/**
+	 * Ends the unit of work started by {@link #beginUnitOfWork(String, int)} in the current
+	 * thread and returns the number of statements it executed.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public long endUnitOfWork() {
+
+		final Counters counters = this.counters.get();
+
+		if (counters.unitOfWork == null) {
+			throw new IllegalStateException("No unit of work was begun");
+		}
+
+		final String name = counters.unitOfWork;
+		final long statements = getStatementCount() - counters.unitOfWorkStart;
+		counters.unitOfWork = null;
+
+		if (statements > counters.unitOfWorkBudget) {
+			violation(name + " executed " + statements + " statements (budget: "
+					+ counters.unitOfWorkBudget + ")", statements, counters.unitOfWorkBudget,
+					true);
+		}
+
+		return statements;
+
+	}
+
+	/**
+	 * Returns the messages of the violations found so far.
+	 * 
+	 * @return a {@link List} of {@link String}s.
+	 */
+	public List<String> getViolations() {
+		return new ArrayList<String>(violations);
+	}
+
+	/**
+	 * Discards the violations found so far.
+	 */
+	public void clearViolations() {
+		violations.clear();
+	}
+
+	private void violation(String message, long statements, int budget, boolean mayThrow) {
+
+		violations.add(message);
+		LOGGER.warn(message);
+
+		if (failOnViolation && mayThrow) {
+			throw new StatementBudgetExceededException(message, statements, budget);
+		}
+
+	}
+
+	private long getStatementCount() {
+
+		if (statistics != null) {
+			return statistics.getPrepareStatementCount();
+		}
+		else {
+			return StatementCountingInterceptor.getStatementCount();
+		}
+
+	}
+
+	/**
+	 * Statement counts of the operations and unit of work in progress in one thread.
+	 */
+	private static class Counters {
+
+		private long[] starts = new long[8];
+
+		private int depth;
+
+		private String unitOfWork;
+
+		private int unitOfWorkBudget;
+
+		private long unitOfWorkStart;
+
+		void push(long count) {
+
+			if (depth == starts.length) {
+				final long[] newStarts = new long[depth * 2];
+				System.arraycopy(starts, 0, newStarts, 0, depth);
+				starts = newStarts;
+			}
+
+			starts[depth++] = count;
+
+		}
+
+		long pop() {
+			return starts[--depth];
+		}
+
+	}
+
+}
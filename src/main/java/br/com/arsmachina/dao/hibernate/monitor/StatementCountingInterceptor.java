@@ -0,0 +1,69 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import org.hibernate.EmptyInterceptor;
+
+/**
+ * Hibernate interceptor that counts the SQL statements prepared in each thread. It is used by
+ * {@link StatementBudgetMonitor} and must be set in the
+ * {@link org.hibernate.cfg.Configuration} or passed to
+ * {@link org.hibernate.SessionFactory#openSession(org.hibernate.Interceptor)}. Applications
+ * that already have an interceptor can invoke {@link #statementPrepared()} from its
+ * <code>onPrepareStatement()</code> method instead.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class StatementCountingInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	final private static ThreadLocal<long[]> COUNT = new ThreadLocal<long[]>() {
+
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+
+	};
+
+	/**
+	 * Counts the statement and returns it unchanged.
+	 * 
+	 * @see org.hibernate.EmptyInterceptor#onPrepareStatement(java.lang.String)
+	 */
+	@Override
+	public String onPrepareStatement(String sql) {
+		statementPrepared();
+		return super.onPrepareStatement(sql);
+	}
+
+	/**
+	 * Counts a statement prepared in the current thread.
+	 */
+	public static void statementPrepared() {
+		COUNT.get()[0]++;
+	}
+
+	/**
+	 * Returns the number of statements prepared in the current thread so far.
+	 * 
+	 * @return a <code>long</code>.
+	 */
+	public static long getStatementCount() {
+		return COUNT.get()[0];
+	}
+
+}
@@ -0,0 +1,36 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.stream;
+
+/**
+ * Producer of a potentially unbounded sequence of objects, which are sent to {@link Subscriber}s
+ * according to their demand. This interface has the same contract as
+ * <code>java.util.concurrent.Flow.Publisher</code>, which is not available in the Java versions
+ * supported by this library, so adapting one to the other is trivial.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the type of the published objects.
+ */
+public interface Publisher<T> {
+
+	/**
+	 * Adds a subscriber. {@link Subscriber#onSubscribe(Subscription)} is invoked before any
+	 * other method of <code>subscriber</code>.
+	 * 
+	 * @param subscriber a {@link Subscriber}. It cannot be null.
+	 */
+	void subscribe(Subscriber<? super T> subscriber);
+
+}
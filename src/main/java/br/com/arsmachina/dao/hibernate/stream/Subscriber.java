@@ -0,0 +1,53 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.stream;
+
+/**
+ * Receiver of the objects sent by a {@link Publisher}. Same contract as
+ * <code>java.util.concurrent.Flow.Subscriber</code>.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ * @param <T> the type of the received objects.
+ */
+public interface Subscriber<T> {
+
+	/**
+	 * Invoked once, before any other method, with the {@link Subscription} used to request
+	 * objects.
+	 * 
+	 * @param subscription a {@link Subscription}.
+	 */
+	void onSubscribe(Subscription subscription);
+
+	/**
+	 * Invoked with each object, never more times than requested.
+	 * 
+	 * @param item a <code>T</code>.
+	 */
+	void onNext(T item);
+
+	/**
+	 * Invoked when the publisher fails. No other method is invoked after it.
+	 * 
+	 * @param throwable a {@link Throwable}.
+	 */
+	void onError(Throwable throwable);
+
+	/**
+	 * Invoked when there are no more objects. No other method is invoked after it.
+	 */
+	void onComplete();
+
+}
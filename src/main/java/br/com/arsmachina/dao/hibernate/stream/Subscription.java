@@ -0,0 +1,40 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.stream;
+
+/**
+ * Link between a {@link Publisher} and a {@link Subscriber}. Same contract as
+ * <code>java.util.concurrent.Flow.Subscription</code>.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public interface Subscription {
+
+	/**
+	 * Adds <code>n</code> objects to the demand of the subscriber. If <code>n</code> is not
+	 * positive, {@link Subscriber#onError(Throwable)} is invoked with an
+	 * {@link IllegalArgumentException}.
+	 * 
+	 * @param n a <code>long</code>. {@link Long#MAX_VALUE} means an unbounded demand.
+	 */
+	void request(long n);
+
+	/**
+	 * Stops sending objects to the subscriber and releases the resources used by this
+	 * subscription. Objects may still be sent until the cancellation is seen.
+	 */
+	void cancel();
+
+}
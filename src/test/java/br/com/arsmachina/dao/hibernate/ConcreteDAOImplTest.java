@@ -16,6 +16,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import br.com.arsmachina.dao.DAO;
+import br.com.arsmachina.dao.hibernate.monitor.StatementBudgetExceededException;
+import br.com.arsmachina.dao.hibernate.monitor.StatementBudgetMonitor;
 
 /**
  * Test class for {@link GenericDAOImpl}.
@@ -224,6 +226,195 @@ public class ConcreteDAOImplTest {
 		
 	}
 
+	/**
+	 * Tests {@link ConcreteDAOImpl#saveAll(java.util.Collection)} and
+	 * {@link ConcreteDAOImpl#deleteAll(java.util.Collection)}.
+	 */
+	@Test
+	public void saveAllAndDeleteAll() {
+
+		List<DummyClass> dummies = new ArrayList<DummyClass>();
+
+		for (int i = 0; i < 5; i++) {
+			DummyClass dummy = new DummyClass();
+			dummy.setString("batch" + i);
+			dummies.add(dummy);
+		}
+
+		session = realDAO.getSession();
+		realDAO.setBatchSize(2);
+
+		final int count = realDAO.countAll();
+
+		session.beginTransaction();
+		int[] counts = realDAO.saveAll(dummies);
+		session.getTransaction().commit();
+
+		assert counts.length == 3;
+		assert counts[0] == 2 && counts[1] == 2 && counts[2] == 1;
+		assert realDAO.countAll() == count + 5;
+
+		for (DummyClass dummy : dummies) {
+			assert realDAO.isPersistent(dummy);
+		}
+
+		session.beginTransaction();
+		counts = realDAO.deleteAll(dummies);
+		session.getTransaction().commit();
+
+		realDAO.setBatchSize(WriteableDAOImpl.DEFAULT_BATCH_SIZE);
+
+		assert counts.length == 3;
+		assert realDAO.countAll() == count;
+
+	}
+
+	/**
+	 * Tests {@link ConcreteDAOImpl#updateAll(java.util.Collection)}.
+	 */
+	@Test
+	public void updateAll() {
+
+		final DummyClass first = createAndInsertDummyObject();
+		final DummyClass second = createAndInsertDummyObject();
+		first.setString("updateAll first");
+		second.setString("updateAll second");
+
+		List<DummyClass> dummies = new ArrayList<DummyClass>();
+		dummies.add(second);
+		dummies.add(first);
+
+		session = realDAO.getSession();
+		realDAO.setBatchSize(1);
+
+		try {
+
+			session.beginTransaction();
+			final int[] counts = realDAO.updateAll(dummies);
+			session.getTransaction().commit();
+
+			assert counts.length == 2;
+			assert dummies.get(0) == second;
+			assert realDAO.findById(first.getId()).getString().equals("updateAll first");
+			assert realDAO.findById(second.getId()).getString().equals("updateAll second");
+
+		}
+		finally {
+			realDAO.setBatchSize(WriteableDAOImpl.DEFAULT_BATCH_SIZE);
+		}
+
+		dummies.add(new DummyClass());
+		boolean ok = false;
+
+		try {
+			realDAO.updateAll(dummies);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests {@link ConcreteDAOImpl#deleteByIds(java.util.Collection, boolean)}.
+	 */
+	@Test
+	public void deleteByIds() {
+
+		final DummyClass first = createAndInsertDummyObject();
+		final DummyClass second = createAndInsertDummyObject();
+		final int count = realDAO.countAll();
+
+		List<Integer> ids = new ArrayList<Integer>();
+		ids.add(first.getId());
+		ids.add(second.getId());
+		ids.add(-1);
+
+		session.beginTransaction();
+		final int deleted = realDAO.deleteByIds(ids, true);
+		session.getTransaction().commit();
+
+		assert deleted == 2;
+		assert realDAO.countAll() == count - 2;
+		assert session.contains(first) == false;
+		assert realDAO.findById(second.getId()) == null;
+
+	}
+
+	/**
+	 * Tests {@link ConcreteDAOImpl#countAll()} with a {@link MaintainedCountStrategy}.
+	 */
+	@Test
+	public void maintainedCount() {
+
+		realDAO.setCountStrategy(new MaintainedCountStrategy(0));
+
+		try {
+
+			final int count = realDAO.countAll();
+			final DummyClass dummy = createAndInsertDummyObject();
+
+			assert realDAO.countAll() == count + 1;
+
+			session.beginTransaction();
+			realDAO.delete(dummy);
+			session.getTransaction().commit();
+
+			assert realDAO.countAll() == count;
+			assert realDAO.countAllExactly() == count;
+
+		}
+		finally {
+			realDAO.setCountStrategy(null);
+		}
+
+	}
+
+	/**
+	 * Tests {@link StatementBudgetMonitor} with a lazy collection loaded for each object returned
+	 * by {@link ConcreteDAOImpl#findAll()}.
+	 */
+	@Test
+	public void statementBudget() {
+
+		final StatementBudgetMonitor monitor =
+			new StatementBudgetMonitor(realSessionFactory, 1, true);
+		monitor.setBudget(DAOOperation.SAVE, 2);
+		realDAO.setMonitor(monitor);
+
+		try {
+
+			createAndInsertDummyObject();
+			createAndInsertDummyObject();
+			session.clear();
+
+			monitor.beginUnitOfWork("findAll", 1);
+
+			for (DummyClass dummy : realDAO.findAll()) {
+				dummy.getElements().size();
+			}
+
+			boolean ok = false;
+
+			try {
+				monitor.endUnitOfWork();
+			}
+			catch (StatementBudgetExceededException e) {
+				ok = e.getStatements() > 2;
+			}
+
+			assert ok;
+			assert monitor.getViolations().size() == 1;
+
+		}
+		finally {
+			realDAO.setMonitor(null);
+		}
+
+	}
+
 	/**
 	 * @param FIRST_STRING
 	 * @return
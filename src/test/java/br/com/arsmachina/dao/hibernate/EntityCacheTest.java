@@ -0,0 +1,120 @@
+package br.com.arsmachina.dao.hibernate;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link EntityCache}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class EntityCacheTest {
+
+	final static String ENTITY = DummyClass.class.getName();
+
+	final static Object[] STATE = new Object[] { "state" };
+
+	/**
+	 * Tests {@link EntityCache#EntityCache(int, int)}.
+	 */
+	@Test
+	public void constructor() {
+
+		boolean ok = false;
+
+		try {
+			new EntityCache(0);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+		ok = false;
+
+		try {
+			new EntityCache(10, 0);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests {@link EntityCache#get(String, java.io.Serializable)} and
+	 * {@link EntityCache#put(String, java.io.Serializable, Object[])}.
+	 */
+	@Test
+	public void getAndPut() {
+
+		EntityCache cache = new EntityCache(10);
+
+		assert cache.get(ENTITY, 1) == null;
+
+		cache.put(ENTITY, 1, STATE);
+
+		assert cache.get(ENTITY, 1) == STATE;
+		assert cache.get("other", 1) == null;
+		assert cache.size() == 1;
+		assert cache.getHitCount() == 1;
+		assert cache.getMissCount() == 2;
+
+	}
+
+	/**
+	 * Tests {@link EntityCache#invalidate(String, java.io.Serializable)} and
+	 * {@link EntityCache#invalidateAll()}.
+	 */
+	@Test
+	public void invalidate() {
+
+		EntityCache cache = new EntityCache(10);
+		cache.put(ENTITY, 1, STATE);
+		cache.put(ENTITY, 2, STATE);
+
+		cache.invalidate(ENTITY, 1);
+
+		assert cache.get(ENTITY, 1) == null;
+		assert cache.get(ENTITY, 2) == STATE;
+
+		cache.invalidateAll();
+
+		assert cache.size() == 0;
+
+	}
+
+	/**
+	 * Tests that frequently used entries are not evicted by rarely used ones.
+	 */
+	@Test
+	public void admission() {
+
+		EntityCache cache = new EntityCache(1, 1);
+		cache.put(ENTITY, 1, STATE);
+
+		for (int i = 0; i < 5; i++) {
+			cache.get(ENTITY, 1);
+		}
+
+		cache.get(ENTITY, 2);
+		cache.put(ENTITY, 2, STATE);
+
+		assert cache.get(ENTITY, 1) == STATE;
+		assert cache.getRejectionCount() == 1;
+
+		for (int i = 0; i < 10; i++) {
+			cache.get(ENTITY, 3);
+		}
+
+		cache.put(ENTITY, 3, STATE);
+
+		assert cache.get(ENTITY, 3) == STATE;
+		assert cache.getEvictionCount() == 1;
+		assert cache.size() == 1;
+
+	}
+
+}
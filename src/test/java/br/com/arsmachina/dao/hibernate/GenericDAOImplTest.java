@@ -2,20 +2,37 @@ package br.com.arsmachina.dao.hibernate;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 import org.easymock.EasyMock;
+import org.hibernate.Hibernate;
 import org.hibernate.LazyInitializationException;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
 import org.hibernate.cfg.AnnotationConfiguration;
 import org.hibernate.classic.Session;
 import org.hibernate.context.ManagedSessionContext;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.SessionFactoryImplementor;
 import org.hibernate.metadata.ClassMetadata;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import br.com.arsmachina.dao.DAO;
+import br.com.arsmachina.dao.SortCriterion;
+import br.com.arsmachina.dao.hibernate.dialect.MultiRowInsertDialect;
+import br.com.arsmachina.dao.hibernate.stream.Subscriber;
+import br.com.arsmachina.dao.hibernate.stream.Subscription;
 
 /**
  * Test class for {@link GenericDAOImpl}.
@@ -225,6 +242,745 @@ public class GenericDAOImplTest {
 		
 	}
 
+	/**
+	 * Tests {@link GenericDAOImpl#iterateAll(br.com.arsmachina.dao.SortCriterion...)}.
+	 */
+	@Test
+	public void iterateAll() {
+
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+
+		dummyDAO.setClearInterval(2);
+
+		int count = 0;
+		CloseableIterator<DummyClass> iterator = dummyDAO.iterateAll();
+
+		try {
+
+			while (iterator.hasNext()) {
+				assert iterator.next() != null;
+				count++;
+			}
+
+		}
+		finally {
+			iterator.close();
+			dummyDAO.setClearInterval(ReadableDAOImpl.DEFAULT_CLEAR_INTERVAL);
+		}
+
+		assert count == dummyDAO.countAll();
+		assert iterator.hasNext() == false;
+
+	}
+
+	/**
+	 * Tests that {@link GenericDAOImpl#iterateAll(br.com.arsmachina.dao.SortCriterion...)} keeps
+	 * the session from growing when the iterated objects' collections are initialized and that
+	 * the objects already in the session are not evicted.
+	 */
+	@Test
+	public void iterateAllEvicts() {
+
+		final int clearInterval = 2;
+		final DummyClass attached = createAndInsertDummyObject();
+
+		for (int i = 0; i < 3 * clearInterval; i++) {
+			createAndInsertDummyObject();
+		}
+
+		final Session session = dummyDAO.getSession();
+		final int entityCount = session.getStatistics().getEntityCount();
+		final int collectionCount = session.getStatistics().getCollectionCount();
+
+		dummyDAO.setClearInterval(clearInterval);
+		CloseableIterator<DummyClass> iterator = dummyDAO.iterateAll();
+
+		try {
+
+			while (iterator.hasNext()) {
+
+				final DummyClass dummy = iterator.next();
+				Hibernate.initialize(dummy.getElements());
+
+				assert session.getStatistics().getEntityCount() <= entityCount + clearInterval;
+				assert session.getStatistics().getCollectionCount() <= collectionCount
+						+ clearInterval;
+
+			}
+
+		}
+		finally {
+			iterator.close();
+			dummyDAO.setClearInterval(ReadableDAOImpl.DEFAULT_CLEAR_INTERVAL);
+		}
+
+		assert session.contains(attached);
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#publishAll(br.com.arsmachina.dao.SortCriterion...)}.
+	 */
+	@Test
+	public void publishAll() {
+
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+
+		final int[] received = new int[1];
+		final boolean[] completed = new boolean[1];
+
+		dummyDAO.publishAll().subscribe(new Subscriber<DummyClass>() {
+
+			private Subscription subscription;
+
+			public void onSubscribe(Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			public void onNext(DummyClass item) {
+				received[0]++;
+				subscription.request(1);
+			}
+
+			public void onError(Throwable throwable) {
+				throw new AssertionError(throwable);
+			}
+
+			public void onComplete() {
+				completed[0] = true;
+			}
+
+		});
+
+		assert completed[0];
+		assert received[0] == dummyDAO.countAll();
+
+		received[0] = 0;
+		completed[0] = false;
+
+		dummyDAO.publishAll().subscribe(new Subscriber<DummyClass>() {
+
+			private Subscription subscription;
+
+			public void onSubscribe(Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			public void onNext(DummyClass item) {
+				received[0]++;
+				subscription.cancel();
+			}
+
+			public void onError(Throwable throwable) {
+				throw new AssertionError(throwable);
+			}
+
+			public void onComplete() {
+				completed[0] = true;
+			}
+
+		});
+
+		assert completed[0] == false;
+		assert received[0] == 1;
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#scan(int, EntityConsumer)}.
+	 */
+	@Test
+	public void scan() {
+
+		for (int i = 0; i < 5; i++) {
+			createAndInsertDummyObject();
+		}
+
+		final Set<Integer> ids = Collections.synchronizedSet(new HashSet<Integer>());
+
+		final long count = dummyDAO.scan(3, new EntityConsumer<DummyClass>() {
+
+			public void consume(DummyClass object) {
+				assert ids.add(object.getId());
+			}
+
+		});
+
+		assert count == dummyDAO.countAll();
+		assert ids.size() == count;
+
+		boolean ok = false;
+
+		try {
+
+			dummyDAO.scan(1, new EntityConsumer<DummyClass>() {
+
+				public void consume(DummyClass object) {
+					Thread.currentThread().interrupt();
+				}
+
+			});
+
+		}
+		catch (IllegalStateException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#findAllAsArrays(int, int, String[], SortCriterion...)},
+	 * {@link GenericDAOImpl#findAllAsMaps(int, int, String[], SortCriterion...)} and
+	 * {@link GenericDAOImpl#findAllAsDTOs(Class, int, int, String[], SortCriterion...)}.
+	 */
+	@Test
+	public void projections() {
+
+		final DummyClass dummy = createAndInsertDummyObject();
+		final String[] properties = { "id", "string" };
+		final int count = dummyDAO.countAll();
+
+		final List<Object[]> rows = dummyDAO.findAllAsArrays(0, count, properties);
+		assert rows.size() == count;
+		assert rows.get(0).length == 2;
+
+		final List<Map<String, Object>> maps =
+			dummyDAO.findAllAsMaps(0, count, new String[] { "string" });
+		assert maps.size() == count;
+		assert maps.get(0).containsKey("string");
+
+		final List<DummyDTO> dtos = dummyDAO.findAllAsDTOs(DummyDTO.class, 0, count, properties);
+		boolean found = false;
+
+		for (DummyDTO dto : dtos) {
+			found |= dto.id == dummy.getId().intValue() && dummy.getString().equals(dto.string);
+		}
+
+		assert found;
+
+		boolean ok = false;
+
+		try {
+			dummyDAO.findAllAsArrays(0, count, new String[] { "elements" });
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#findByIdsReadOnly(java.io.Serializable[])}.
+	 */
+	@Test
+	public void findByIdsReadOnly() {
+
+		final DummyClass dummy = createAndInsertDummyObject();
+		final String string = dummy.getString();
+		final Session session = (Session) realSessionFactory.getCurrentSession();
+
+		dummyDAO.evict(dummy);
+
+		final DummyClass found = dummyDAO.findByIdsReadOnly(dummy.getId()).get(0);
+		found.setString(string + "changed");
+
+		Transaction transaction = session.beginTransaction();
+		session.flush();
+		transaction.commit();
+		session.clear();
+
+		assert dummyDAO.findById(dummy.getId()).getString().equals(string);
+
+		final DummyClass loaded = dummyDAO.findById(dummy.getId());
+
+		assert dummyDAO.findByIdsReadOnly(dummy.getId()).get(0) == loaded;
+
+		loaded.setString(string + "changed");
+
+		transaction = session.beginTransaction();
+		session.flush();
+		transaction.commit();
+		session.clear();
+
+		assert dummyDAO.findById(dummy.getId()).getString().equals(string);
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#findByIds(FetchPlan, java.io.Serializable[])},
+	 * {@link GenericDAOImpl#findAll(FetchPlan, int, int, SortCriterion...)} and
+	 * {@link GenericDAOImpl#findById(java.io.Serializable, FetchPlan)} in read-only mode.
+	 */
+	@Test
+	public void fetchPlan() {
+
+		final DummyClass first = createAndInsertDummyObject();
+		final DummyClass second = createAndInsertDummyObject();
+		realSessionFactory.getCurrentSession().clear();
+
+		final List<DummyClass> found =
+			dummyDAO.findByIds(FetchPlan.batch("elements"), second.getId(), first.getId());
+
+		assert found.size() == 2;
+		assert found.get(0).getId().equals(second.getId());
+		assert Hibernate.isInitialized(found.get(0).getElements());
+		assert Hibernate.isInitialized(found.get(1).getElements());
+
+		realSessionFactory.getCurrentSession().clear();
+
+		final List<DummyClass> page = dummyDAO.findAll(FetchPlan.join("elements"), 0, 1);
+
+		assert page.size() == 1;
+		assert page.get(0).getElements().size() > 0;
+		assert Hibernate.isInitialized(page.get(0).getElements());
+
+		boolean ok = false;
+
+		try {
+			dummyDAO.findAll(FetchPlan.join("string"));
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+		final Session session = (Session) realSessionFactory.getCurrentSession();
+		final String string = first.getString();
+		session.clear();
+		dummyDAO.setReadOnly(true);
+
+		try {
+
+			final DummyClass found = dummyDAO.findById(first.getId(), FetchPlan.join("elements"));
+			assert Hibernate.isInitialized(found.getElements());
+			found.setString(string + "changed");
+
+			final Transaction transaction = session.beginTransaction();
+			session.flush();
+			transaction.commit();
+			session.clear();
+
+		}
+		finally {
+			dummyDAO.setReadOnly(false);
+		}
+
+		assert dummyDAO.findById(first.getId()).getString().equals(string);
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#findAllAfter(Object, int, br.com.arsmachina.dao.SortCriterion...)}.
+	 */
+	@Test
+	public void findAllAfter() {
+
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+
+		final List<DummyClass> all = dummyDAO.findAll(0, Integer.MAX_VALUE, new SortCriterion[0]);
+		final List<DummyClass> paged = new ArrayList<DummyClass>();
+		List<DummyClass> page = dummyDAO.findAllAfter(null, 2);
+
+		while (page.isEmpty() == false) {
+			paged.addAll(page);
+			page = dummyDAO.findAllAfter(page.get(page.size() - 1), 2);
+		}
+
+		assert paged.size() == all.size();
+
+		for (int i = 1; i < paged.size(); i++) {
+			assert paged.get(i - 1).getId() < paged.get(i).getId();
+		}
+
+	}
+
+	/**
+	 * Tests {@link ReadableDAOImpl#toHqlOrderBy(SortCriterion...)}.
+	 */
+	@Test
+	public void toHqlOrderBy() {
+
+		assert ReadableDAOImpl.toHqlOrderBy().equals("");
+		assert ReadableDAOImpl.toHqlOrderBy(new SortCriterion("string", true)).equals(
+				" ORDER BY string ASC");
+		assert ReadableDAOImpl.toHqlOrderBy(new SortCriterion("string", true),
+				new SortCriterion("id", false)).equals(" ORDER BY string ASC, id DESC");
+
+	}
+
+	/**
+	 * Tests that {@link GenericDAOImpl#findAll(int, int, SortCriterion...)} sorts the objects
+	 * in every page.
+	 */
+	@Test
+	public void findAllSorted() {
+
+		createAndInsertDummyObject();
+		createAndInsertDummyObject();
+
+		final SortCriterion descending = new SortCriterion("id", false);
+
+		for (int i = 0; i < 2; i++) {
+
+			final List<DummyClass> found = dummyDAO.findAll(0, Integer.MAX_VALUE, descending);
+
+			assert found.size() >= 2;
+
+			for (int j = 1; j < found.size(); j++) {
+				assert found.get(j - 1).getId() > found.get(j).getId();
+			}
+
+		}
+
+		final List<DummyClass> page = dummyDAO.findAll(1, 1, new SortCriterion("id", false));
+
+		assert page.size() == 1;
+		assert page.get(0).getId() < dummyDAO.findAll(0, 1, descending).get(0).getId();
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#openBulkWriter()}.
+	 */
+	@Test
+	public void bulkWriter() {
+
+		final int count = dummyDAO.countAll();
+		final BulkWriter<DummyClass, Integer> writer = dummyDAO.openBulkWriter();
+		final DummyClass dummy = new DummyClass();
+		dummy.setString("bulk");
+
+		try {
+
+			Transaction transaction = writer.beginTransaction();
+			Integer id = writer.insert(dummy);
+			transaction.commit();
+
+			assert id != null;
+			assert dummyDAO.countAll() == count + 1;
+
+			transaction = writer.beginTransaction();
+			assert writer.delete(id) == 1;
+			transaction.commit();
+
+		}
+		finally {
+			writer.close();
+		}
+
+		assert dummyDAO.countAll() == count;
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#updateByIds(java.util.Collection, Map, boolean)},
+	 * {@link GenericDAOImpl#updateByExample(Object, Map, boolean)} and
+	 * {@link GenericDAOImpl#updateByCriteria(DetachedCriteria, Map, boolean)}.
+	 */
+	@Test
+	public void bulkUpdate() {
+
+		final DummyClass first = createAndInsertDummyObject();
+		final DummyClass second = createAndInsertDummyObject();
+		final Map<String, Object> assignments = new HashMap<String, Object>();
+		assignments.put("string", "bulk updated");
+
+		final List<Integer> ids = new ArrayList<Integer>();
+		ids.add(first.getId());
+		ids.add(second.getId());
+
+		assert dummyDAO.updateByIds(ids, assignments, true) == 2;
+		assert dummyDAO.findById(first.getId()).getString().equals("bulk updated");
+		assert dummyDAO.findById(second.getId()).getString().equals("bulk updated");
+
+		final DummyClass example = new DummyClass();
+		example.setString("bulk updated");
+		assignments.put("string", "bulk updated again");
+
+		assert dummyDAO.updateByExample(example, assignments, true) == 2;
+		assert dummyDAO.findById(first.getId()).getString().equals("bulk updated again");
+
+		final int maximumInListSize = dummyDAO.getMaximumInListSize();
+		final DetachedCriteria criteria = DetachedCriteria.forClass(DummyClass.class);
+		criteria.add(Restrictions.eq("string", "bulk updated again"));
+		final DummyClass third = createAndInsertDummyObject();
+		assignments.put("string", "bulk updated again");
+		assert dummyDAO.updateByIds(Collections.singleton(third.getId()), assignments, true) == 1;
+		assignments.put("string", "bulk updated by criteria");
+
+		try {
+			dummyDAO.setMaximumInListSize(2);
+			assert dummyDAO.updateByCriteria(criteria, assignments, true) == 3;
+		}
+		finally {
+			dummyDAO.setMaximumInListSize(maximumInListSize);
+		}
+
+		assert dummyDAO.findById(third.getId()).getString().equals("bulk updated by criteria");
+		assert criteria.getExecutableCriteria(dummyDAO.getSession()).list().isEmpty();
+
+		assignments.clear();
+		assignments.put("elements", null);
+		boolean ok = false;
+
+		try {
+			dummyDAO.updateByIds(ids, assignments, true);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests that {@link GenericDAOImpl#deleteByCriteria(DetachedCriteria, boolean)} deletes the
+	 * matched objects in chunks and leaves the given criteria unchanged.
+	 */
+	@Test
+	public void deleteByCriteria() {
+
+		final int maximumInListSize = dummyDAO.getMaximumInListSize();
+		final DetachedCriteria criteria = DetachedCriteria.forClass(DummyClass.class);
+		criteria.add(Restrictions.eq("string", "delete by criteria"));
+		final Session session = dummyDAO.getSession();
+
+		session.beginTransaction();
+
+		for (int i = 0; i < 5; i++) {
+			final DummyClass dummy = new DummyClass();
+			dummy.setString("delete by criteria");
+			dummyDAO.save(dummy);
+		}
+
+		session.getTransaction().commit();
+
+		try {
+
+			dummyDAO.setMaximumInListSize(2);
+
+			session.beginTransaction();
+			final int deleted = dummyDAO.deleteByCriteria(criteria, true);
+			session.getTransaction().commit();
+
+			assert deleted == 5;
+			assert criteria.getExecutableCriteria(session).list().isEmpty();
+
+			session.beginTransaction();
+			final DummyClass dummy = new DummyClass();
+			dummy.setString("delete by criteria");
+			dummyDAO.save(dummy);
+			session.getTransaction().commit();
+
+			final List<?> matched = criteria.getExecutableCriteria(session).list();
+			assert matched.size() == 1;
+			assert matched.get(0) == dummy;
+
+			session.beginTransaction();
+			assert dummyDAO.deleteByCriteria(criteria, true) == 1;
+			session.getTransaction().commit();
+
+		}
+		finally {
+			dummyDAO.setMaximumInListSize(maximumInListSize);
+		}
+
+	}
+
+	/**
+	 * Tests {@link BulkWriter#load(java.util.Collection)} with more objects than one statement
+	 * holds, so both full statements and a remainder statement are executed.
+	 */
+	@Test
+	public void bulkLoad() {
+
+		final MultiRowInsertDialect dialect =
+			(MultiRowInsertDialect) ((SessionFactoryImplementor) realSessionFactory).getDialect();
+
+		// the only inserted column is string, as the id is generated by the database.
+		final int rowsPerStatement =
+			Math.min(dialect.getMaximumInsertRows(), dialect.getMaximumParameters());
+		final int count = dummyDAO.countAll();
+		final List<DummyClass> objects = new ArrayList<DummyClass>();
+		final Set<String> strings = new HashSet<String>();
+
+		assert rowsPerStatement > 1;
+
+		for (int i = 0; i < 2 * rowsPerStatement + 3; i++) {
+			final DummyClass dummy = new DummyClass();
+			dummy.setString("load " + i);
+			objects.add(dummy);
+			strings.add(dummy.getString());
+		}
+
+		final BulkWriter<DummyClass, Integer> writer = dummyDAO.openBulkWriter();
+
+		try {
+
+			final Transaction transaction = writer.beginTransaction();
+			assert writer.load(objects) == objects.size();
+			transaction.commit();
+
+		}
+		finally {
+			writer.close();
+		}
+
+		assert dummyDAO.countAll() == count + objects.size();
+
+		final List<?> loaded = dummyDAO.getSession().createCriteria(DummyClass.class)
+				.add(Restrictions.like("string", "load %"))
+				.setProjection(Projections.property("string"))
+				.list();
+
+		assert loaded.size() == objects.size();
+		assert new HashSet<Object>(loaded).equals(strings);
+
+		final DummyClass example = new DummyClass();
+		example.setString("load " + (2 * rowsPerStatement + 1));
+
+		assert dummyDAO.findByExample(example).size() == 1;
+
+	}
+
+	/**
+	 * Tests {@link AsyncDAO}.
+	 */
+	@Test
+	public void asyncDAO() throws Exception {
+
+		final DummyClass dummy = createAndInsertDummyObject();
+		final int count = dummyDAO.countAll();
+		final AsyncDAO<DummyClass, Integer> asyncDAO =
+			new AsyncDAO<DummyClass, Integer>(dummyDAO, realSessionFactory, 2);
+
+		try {
+
+			final Future<DummyClass> found = asyncDAO.findById(dummy.getId());
+			final Future<Integer> counted = asyncDAO.countAll();
+
+			assert found.get().getId().equals(dummy.getId());
+			assert found.get() != dummy;
+			assert counted.get() == count;
+
+		}
+		finally {
+			asyncDAO.shutdown();
+		}
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#findByIds(java.io.Serializable[])}.
+	 */
+	@Test
+	public void findByIds() {
+
+		final DummyClass first = createAndInsertDummyObject();
+		final DummyClass second = createAndInsertDummyObject();
+		final DummyClass third = createAndInsertDummyObject();
+
+		dummyDAO.evict(first);
+		dummyDAO.evict(third);
+		dummyDAO.setMaximumInListSize(1);
+
+		try {
+
+			List<DummyClass> found = dummyDAO.findByIds(third.getId(), -1, second.getId(),
+					first.getId(), third.getId());
+
+			assert found.size() == 3;
+			assert found.get(0).getId().equals(third.getId());
+			assert found.get(1) == second;
+			assert found.get(2).getId().equals(first.getId());
+
+		}
+		finally {
+			dummyDAO.setMaximumInListSize(BaseHibernateDAO.DEFAULT_MAXIMUM_IN_LIST_SIZE);
+		}
+
+	}
+
+	/**
+	 * Tests {@link GenericDAOImpl#upsertAll(java.util.Collection)} with the <code>merge</code>
+	 * statements of {@link br.com.arsmachina.dao.hibernate.dialect.BulkHSQLDialect}.
+	 */
+	@Test
+	public void upsertAll() {
+
+		final DummyClass existing = createAndInsertDummyObject();
+		final Integer newId = existing.getId() + 100;
+		final int count = dummyDAO.countAll();
+
+		final DummyClass updated = new DummyClass();
+		updated.setId(existing.getId());
+		updated.setString("updated");
+
+		final DummyClass first = new DummyClass();
+		first.setId(newId);
+		first.setString("first");
+
+		final DummyClass last = new DummyClass();
+		last.setId(newId);
+		last.setString("last");
+
+		session.beginTransaction();
+		final UpsertResult result = dummyDAO.upsertAll(Arrays.asList(updated, first, last));
+		session.getTransaction().commit();
+
+		assert result.getWritten() == 2;
+		assert result.getInserted() == UpsertResult.UNKNOWN;
+		assert dummyDAO.countAll() == count + 1;
+		assert dummyDAO.findById(existing.getId()).getString().equals("updated");
+		assert dummyDAO.findById(newId).getString().equals("last");
+
+	}
+
+	/**
+	 * Tests that {@link GenericDAOImpl#update(Object)} invalidates the entity cache again after
+	 * the transaction completes.
+	 */
+	@Test
+	public void invalidateAfterCommit() {
+
+		final DummyClass dummy = createAndInsertDummyObject();
+		final String entityName = DummyClass.class.getName();
+		final EntityCache cache = new EntityCache(10);
+		dummyDAO.setEntityCache(cache);
+
+		try {
+
+			session.beginTransaction();
+			dummy.setString("cccc");
+			dummyDAO.update(dummy);
+
+			// a concurrent read caching the state before the commit
+			cache.put(entityName, dummy.getId(), new Object[] { "bbbb" });
+
+			session.getTransaction().commit();
+
+			assert cache.get(entityName, dummy.getId()) == null;
+
+		}
+		finally {
+			dummyDAO.setEntityCache(null);
+		}
+
+	}
+
 	/**
 	 * @param FIRST_STRING
 	 * @return
@@ -344,6 +1100,19 @@ public class GenericDAOImplTest {
 
 	}
 
+	public static class DummyDTO {
+
+		final private int id;
+
+		final private String string;
+
+		public DummyDTO(int id, String string) {
+			this.id = id;
+			this.string = string;
+		}
+
+	}
+
 	final private static class DummyDAO extends GenericDAOImpl<DummyClass, Integer> {
 
 		/**
@@ -0,0 +1,124 @@
+package br.com.arsmachina.dao.hibernate;
+
+import org.easymock.EasyMock;
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link QueryCacheSettings}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class QueryCacheSettingsTest {
+
+	final static String REGION = "dummy";
+
+	private Criteria criteria;
+
+	private SessionFactory sessionFactory;
+
+	@SuppressWarnings("unused")
+	@BeforeMethod
+	private void setUp() {
+		criteria = EasyMock.createMock(Criteria.class);
+		sessionFactory = EasyMock.createMock(SessionFactory.class);
+	}
+
+	/**
+	 * Tests {@link QueryCacheSettings#QueryCacheSettings(String, long, DAOOperation...)}.
+	 */
+	@Test
+	public void constructor() {
+
+		boolean ok = false;
+
+		try {
+			new QueryCacheSettings(null, 0, DAOOperation.FIND_ALL);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+		ok = false;
+
+		try {
+			new QueryCacheSettings(REGION, -1, DAOOperation.FIND_ALL);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests that {@link QueryCacheSettings#apply(Criteria, DAOOperation, SessionFactory)} makes
+	 * the queries of the configured operations cacheable in the configured region.
+	 */
+	@Test
+	public void region() {
+
+		QueryCacheSettings settings = new QueryCacheSettings(REGION, 0, DAOOperation.FIND_ALL);
+
+		EasyMock.expect(criteria.setCacheable(true)).andReturn(criteria);
+		EasyMock.expect(criteria.setCacheRegion(REGION)).andReturn(criteria);
+		EasyMock.replay(criteria, sessionFactory);
+
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+		settings.apply(criteria, DAOOperation.COUNT_ALL, sessionFactory);
+
+		EasyMock.verify(criteria, sessionFactory);
+
+	}
+
+	/**
+	 * Tests that expired queries are refreshed one by one instead of evicting the region.
+	 */
+	@Test
+	public void timeToLive() throws InterruptedException {
+
+		QueryCacheSettings settings = new QueryCacheSettings(REGION, 50, DAOOperation.FIND_ALL);
+
+		EasyMock.expect(criteria.setCacheable(true)).andReturn(criteria).times(3);
+		EasyMock.expect(criteria.setCacheRegion(REGION)).andReturn(criteria).times(3);
+		EasyMock.expect(criteria.setCacheMode(CacheMode.REFRESH)).andReturn(criteria).times(2);
+		EasyMock.replay(criteria, sessionFactory);
+
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+		Thread.sleep(100);
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+
+		EasyMock.verify(criteria, sessionFactory);
+
+	}
+
+	/**
+	 * Tests {@link QueryCacheSettings#evict(SessionFactory)}.
+	 */
+	@Test
+	public void evict() {
+
+		QueryCacheSettings settings = new QueryCacheSettings(REGION, 60000, DAOOperation.FIND_ALL);
+
+		sessionFactory.evictQueries(REGION);
+		EasyMock.expect(criteria.setCacheable(true)).andReturn(criteria).times(2);
+		EasyMock.expect(criteria.setCacheRegion(REGION)).andReturn(criteria).times(2);
+		EasyMock.expect(criteria.setCacheMode(CacheMode.REFRESH)).andReturn(criteria).times(2);
+		EasyMock.replay(criteria, sessionFactory);
+
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+		settings.evict(sessionFactory);
+		settings.apply(criteria, DAOOperation.FIND_ALL, sessionFactory);
+
+		EasyMock.verify(criteria, sessionFactory);
+
+	}
+
+}
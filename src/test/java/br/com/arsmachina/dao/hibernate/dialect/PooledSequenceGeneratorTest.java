@@ -0,0 +1,50 @@
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.util.Properties;
+
+import org.hibernate.Hibernate;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link PooledSequenceGenerator} and {@link PooledSequencePostgresqlDialect}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class PooledSequenceGeneratorTest {
+
+	/**
+	 * Tests the default sequence name, allocation size and optimizer.
+	 */
+	@Test
+	public void configure() {
+
+		final PooledSequencePostgresqlDialect dialect = new PooledSequencePostgresqlDialect();
+		assert dialect.getNativeIdentifierGeneratorClass() == PooledSequenceGenerator.class;
+
+		final Properties params = new Properties();
+		params.setProperty(PersistentIdentifierGenerator.TABLE, "\"Dummy\"");
+		params.setProperty(PersistentIdentifierGenerator.PK, "id");
+
+		PooledSequenceGenerator generator = new PooledSequenceGenerator();
+		generator.configure(Hibernate.LONG, params, dialect);
+
+		assert generator.getDatabaseStructure().getName().equals("Dummy_id_seq");
+		assert generator.getDatabaseStructure().getIncrementSize() == 1;
+		assert generator.getOptimizer() instanceof OptimizerFactory.NoopOptimizer;
+
+		params.setProperty(SequenceStyleGenerator.SEQUENCE_PARAM, "other_seq");
+		params.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, "10");
+
+		generator = new PooledSequenceGenerator();
+		generator.configure(Hibernate.LONG, params, dialect);
+
+		assert generator.getDatabaseStructure().getName().equals("other_seq");
+		assert generator.getOptimizer().getIncrementSize() == 10;
+		assert generator.getOptimizer() instanceof OptimizerFactory.PooledOptimizer;
+
+	}
+
+}
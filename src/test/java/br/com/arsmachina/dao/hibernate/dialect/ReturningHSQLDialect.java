@@ -0,0 +1,56 @@
+// Copyright 2008 Thiago H. de Paula Figueiredo
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package br.com.arsmachina.dao.hibernate.dialect;
+
+/**
+ * {@link BulkHSQLDialect} that implements {@link ReturningDialect} by reading the JDBC
+ * generated keys, used to test {@link ReturningIdentityGenerator} and the returning path of
+ * {@link br.com.arsmachina.dao.hibernate.BulkWriter#load(java.util.Collection)} against a real
+ * database.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class ReturningHSQLDialect extends BulkHSQLDialect implements ReturningDialect {
+
+	/**
+	 * Returns {@link ReturningIdentityGenerator}.
+	 * 
+	 * @see org.hibernate.dialect.Dialect#getNativeIdentifierGeneratorClass()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class getNativeIdentifierGeneratorClass() {
+		return ReturningIdentityGenerator.class;
+	}
+
+	/**
+	 * Not invoked, as {@link #isReturningGeneratedKeys()} returns <code>true</code>.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.ReturningDialect#appendReturning(java.lang.String, java.lang.String[])
+	 */
+	public String appendReturning(String insertSQL, String... columns) {
+		throw new UnsupportedOperationException("HSQLDB does not support returning clauses");
+	}
+
+	/**
+	 * Returns <code>true</code>.
+	 * 
+	 * @see br.com.arsmachina.dao.hibernate.dialect.ReturningDialect#isReturningGeneratedKeys()
+	 */
+	public boolean isReturningGeneratedKeys() {
+		return true;
+	}
+
+}
@@ -0,0 +1,207 @@
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AnnotationConfiguration;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.sql.Insert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import br.com.arsmachina.dao.hibernate.BulkWriter;
+import br.com.arsmachina.dao.hibernate.ConcreteDAOImpl;
+import br.com.arsmachina.dao.hibernate.DummyClass;
+
+/**
+ * Test class for {@link ReturningIdentityGenerator} and
+ * {@link IdentityPostresqlDialect#appendReturning(String, String...)}. PostgreSQL is not
+ * available in the test environment, so the PostgreSQL <code>returning</code> clause is only
+ * checked in the generated SQL. The returning path itself is run against HSQLDB through
+ * {@link ReturningHSQLDialect}, which reads the JDBC generated keys instead.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class ReturningIdentityGeneratorTest {
+
+	final private IdentityPostresqlDialect dialect = new IdentityPostresqlDialect();
+
+	private SessionFactory sessionFactory;
+
+	@SuppressWarnings("unused")
+	@BeforeClass
+	private void beforeClass() {
+
+		AnnotationConfiguration configuration = new AnnotationConfiguration();
+		configuration.configure();
+		configuration.setProperty("hibernate.dialect", ReturningHSQLDialect.class.getName());
+		configuration.setProperty("hibernate.connection.url", "jdbc:hsqldb:mem:returning");
+		sessionFactory = configuration.buildSessionFactory();
+
+	}
+
+	@SuppressWarnings("unused")
+	@AfterClass
+	private void afterClass() {
+		sessionFactory.close();
+	}
+
+	/**
+	 * Tests {@link IdentityPostresqlDialect#appendReturning(String, String...)}.
+	 */
+	@Test
+	public void appendReturning() {
+
+		assert dialect.getNativeIdentifierGeneratorClass() == ReturningIdentityGenerator.class;
+
+		final String single = "insert into dummy (string) values (?)";
+		assert dialect.appendReturning(single, "id").equals(single + " returning id");
+
+		final String multiple = "insert into dummy (string) values (?), (?), (?)";
+		assert dialect.appendReturning(multiple, "id", "version").equals(
+				multiple + " returning id, version");
+
+		boolean ok = false;
+
+		try {
+			dialect.appendReturning(single);
+		}
+		catch (IllegalArgumentException e) {
+			ok = true;
+		}
+
+		assert ok;
+
+	}
+
+	/**
+	 * Tests the insert statement generated for the persisters.
+	 */
+	@Test
+	public void insert() {
+
+		final Insert insert = new ReturningIdentityGenerator.ReturningInsert(dialect, "id");
+		insert.setTableName("dummy");
+		insert.addColumn("string");
+
+		final String sql = insert.toStatementString();
+
+		assert sql.startsWith("insert into dummy (string) values (?)");
+		assert sql.endsWith(" returning id");
+
+	}
+
+	/**
+	 * Tests that {@link ReturningIdentityGenerator} sets in each saved object the id of its own
+	 * row.
+	 */
+	@Test
+	public void save() {
+
+		final SessionFactoryImplementor factory = (SessionFactoryImplementor) sessionFactory;
+
+		assert factory.getDialect() instanceof ReturningHSQLDialect;
+		assert factory.getIdentifierGenerator(DummyClass.class.getName())
+			instanceof ReturningIdentityGenerator;
+
+		final List<DummyClass> objects = createObjects("save", 5);
+		final Session session = sessionFactory.openSession();
+
+		try {
+
+			final Transaction transaction = session.beginTransaction();
+
+			for (DummyClass object : objects) {
+				session.save(object);
+			}
+
+			transaction.commit();
+
+		}
+		finally {
+			session.close();
+		}
+
+		assertOwnIds(objects);
+
+	}
+
+	/**
+	 * Tests that {@link BulkWriter#load(java.util.Collection)} sets in each loaded object the id
+	 * of its own row when the dialect is a {@link ReturningDialect}.
+	 */
+	@Test
+	public void load() {
+
+		final ConcreteDAOImpl<DummyClass, Integer> dao =
+			new ConcreteDAOImpl<DummyClass, Integer>(DummyClass.class, sessionFactory);
+		final List<DummyClass> objects = createObjects("load", 7);
+		final BulkWriter<DummyClass, Integer> writer = dao.openBulkWriter();
+
+		try {
+
+			final Transaction transaction = writer.beginTransaction();
+			assert writer.load(objects) == objects.size();
+			transaction.commit();
+
+		}
+		finally {
+			writer.close();
+		}
+
+		assertOwnIds(objects);
+
+	}
+
+	private List<DummyClass> createObjects(String prefix, int count) {
+
+		final List<DummyClass> objects = new ArrayList<DummyClass>();
+
+		for (int i = 0; i < count; i++) {
+			final DummyClass dummy = new DummyClass();
+			dummy.setString(prefix + " " + i);
+			objects.add(dummy);
+		}
+
+		return objects;
+
+	}
+
+	/**
+	 * Asserts that the objects have distinct ids and that the row with each id has the string
+	 * of its object.
+	 */
+	private void assertOwnIds(List<DummyClass> objects) {
+
+		final Set<Integer> ids = new HashSet<Integer>();
+		final Session session = sessionFactory.openSession();
+
+		try {
+
+			for (DummyClass object : objects) {
+
+				assert object.getId() != null;
+				assert ids.add(object.getId());
+
+				final DummyClass loaded =
+					(DummyClass) session.get(DummyClass.class, object.getId());
+
+				assert loaded != null;
+				assert loaded.getString().equals(object.getString());
+
+			}
+
+		}
+		finally {
+			session.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,74 @@
+package br.com.arsmachina.dao.hibernate.dialect;
+
+import java.sql.Types;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link UpsertDialect} implementations. The statements executed by
+ * {@link BulkHSQLDialect} are tested by
+ * {@link br.com.arsmachina.dao.hibernate.GenericDAOImplTest#upsertAll()}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class UpsertDialectTest {
+
+	final private static String[] KEY_COLUMNS = { "id" };
+
+	final private static String[] COLUMNS = { "id", "name", "status" };
+
+	final private static int[] SQL_TYPES = { Types.INTEGER, Types.VARCHAR, Types.DECIMAL };
+
+	/**
+	 * Tests {@link IdentityPostresqlDialect#getUpsertString(String, String[], String[], int[], int)}.
+	 */
+	@Test
+	public void postgresql() {
+
+		final IdentityPostresqlDialect dialect = new IdentityPostresqlDialect();
+
+		assert dialect.isUpsertReturningInserted();
+		assert dialect.getUpsertString("log", KEY_COLUMNS, COLUMNS, SQL_TYPES, 2).equals(
+				"insert into log (id, name, status) values (?, ?, ?), (?, ?, ?) "
+						+ "on conflict (id) do update set name = excluded.name, "
+						+ "status = excluded.status returning (xmax = 0)");
+		assert dialect.getUpsertString("log", KEY_COLUMNS, KEY_COLUMNS, SQL_TYPES, 1).equals(
+				"insert into log (id) values (?) on conflict (id) do nothing "
+						+ "returning (xmax = 0)");
+
+	}
+
+	/**
+	 * Tests {@link IdentityPostresqlDialect#getAdvanceIdentityString(String, String)}, executed
+	 * after the upserts.
+	 */
+	@Test
+	public void advanceIdentity() {
+
+		final IdentityPostresqlDialect dialect = new IdentityPostresqlDialect();
+
+		assert dialect.getAdvanceIdentityString("log", "id").equals(
+				"select setval('log_id_seq', greatest(max(id), nextval('log_id_seq'))) from log");
+
+	}
+
+	/**
+	 * Tests {@link BulkHSQLDialect#getUpsertString(String, String[], String[], int[], int)}.
+	 */
+	@Test
+	public void hsqldb() {
+
+		final BulkHSQLDialect dialect = new BulkHSQLDialect();
+
+		assert dialect.isUpsertReturningInserted() == false;
+		assert dialect.getUpsertString("log", KEY_COLUMNS, COLUMNS, SQL_TYPES, 1).equals(
+				"merge into log target using (values (cast(? as integer), "
+						+ "cast(? as varchar(16777216)), cast(? as decimal(128, 32)))) "
+						+ "as source (id, name, status) on target.id = source.id "
+						+ "when matched then update set target.name = source.name, "
+						+ "target.status = source.status when not matched then "
+						+ "insert (id, name, status) values (source.id, source.name, source.status)");
+
+	}
+
+}
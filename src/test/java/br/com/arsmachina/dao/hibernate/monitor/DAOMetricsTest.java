@@ -0,0 +1,138 @@
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AnnotationConfiguration;
+import org.hibernate.context.ManagedSessionContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import br.com.arsmachina.dao.hibernate.ConcreteDAOImpl;
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+import br.com.arsmachina.dao.hibernate.DummyClass;
+
+/**
+ * Test class for {@link DAOMetrics}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class DAOMetricsTest {
+
+	final static String DOMAIN = "test";
+
+	private SessionFactory sessionFactory;
+
+	private MBeanServer mbeanServer;
+
+	private ConcreteDAOImpl<DummyClass, Integer> dao;
+
+	@SuppressWarnings("unused")
+	@BeforeClass
+	private void beforeClass() {
+
+		AnnotationConfiguration configuration = new AnnotationConfiguration();
+		configuration.configure();
+		configuration.setProperty("hibernate.current_session_context_class", "managed");
+		sessionFactory = configuration.buildSessionFactory();
+		ManagedSessionContext.bind(sessionFactory.openSession());
+
+	}
+
+	@SuppressWarnings("unused")
+	@BeforeMethod
+	private void setUp() {
+		mbeanServer = MBeanServerFactory.newMBeanServer();
+		dao = new ConcreteDAOImpl<DummyClass, Integer>(DummyClass.class, sessionFactory);
+	}
+
+	@SuppressWarnings("unused")
+	@AfterMethod
+	private void tearDown() {
+		MBeanServerFactory.releaseMBeanServer(mbeanServer);
+	}
+
+	/**
+	 * Tests that the metrics of an operation invoked through a DAO are registered with the
+	 * documented name and that their attributes can be read through the {@link MBeanServer}.
+	 */
+	@Test
+	public void register() throws Exception {
+
+		final DAOMetrics metrics = new DAOMetrics(mbeanServer, DOMAIN);
+		dao.setMonitor(metrics);
+
+		final List<DummyClass> objects = dao.findAll();
+
+		final ObjectName name = new ObjectName(DOMAIN + ":type=DAOMetrics,entity="
+				+ DummyClass.class.getName() + ",operation=" + DAOOperation.FIND_ALL.name());
+
+		assert mbeanServer.isRegistered(name);
+		assert mbeanServer.getAttribute(name, "EntityName").equals(DummyClass.class.getName());
+		assert mbeanServer.getAttribute(name, "OperationName").equals("FIND_ALL");
+		assert ((Long) mbeanServer.getAttribute(name, "Calls")) == 1;
+		assert ((Long) mbeanServer.getAttribute(name, "Errors")) == 0;
+		assert ((Long) mbeanServer.getAttribute(name, "Rows")) == objects.size();
+		assert ((Long) mbeanServer.getAttribute(name, "MaxMicros")) >= 0;
+
+		dao.findAll();
+
+		assert ((Long) mbeanServer.getAttribute(name, "Calls")) == 2;
+
+		mbeanServer.invoke(name, "reset", null, null);
+
+		assert ((Long) mbeanServer.getAttribute(name, "Calls")) == 0;
+
+	}
+
+	/**
+	 * Tests {@link DAOMetrics#unregister()}.
+	 */
+	@Test
+	public void unregister() throws Exception {
+
+		final DAOMetrics metrics = new DAOMetrics(mbeanServer, DOMAIN);
+		dao.setMonitor(metrics);
+		dao.findAll();
+		dao.countAll();
+
+		final ObjectName pattern = new ObjectName(DOMAIN + ":type=DAOMetrics,*");
+
+		assert mbeanServer.queryNames(pattern, null).size() == metrics.getOperationMetrics().size();
+		assert metrics.getOperationMetrics().isEmpty() == false;
+
+		metrics.unregister();
+
+		assert mbeanServer.queryNames(pattern, null).isEmpty();
+
+	}
+
+	/**
+	 * Tests that metrics created without an {@link MBeanServer} are kept but not registered.
+	 */
+	@Test
+	public void withoutMBeanServer() throws Exception {
+
+		final DAOMetrics metrics = new DAOMetrics();
+		dao.setMonitor(metrics);
+		dao.findAll();
+
+		final OperationMetrics operationMetrics =
+			metrics.getOperationMetrics(DummyClass.class.getName(), DAOOperation.FIND_ALL);
+
+		assert operationMetrics.getCalls() == 1;
+		assert mbeanServer.queryNames(new ObjectName(DOMAIN + ":*"), null).isEmpty();
+		assert mbeanServer.queryNames(new ObjectName(DAOMetrics.DEFAULT_DOMAIN + ":*"), null)
+				.isEmpty();
+
+		metrics.unregister();
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * Tests {@link LatencyHistogram#index(long)} and {@link LatencyHistogram#highestValue(int)}.
+	 */
+	@Test
+	public void buckets() {
+
+		for (long value = 0; value < 32; value++) {
+			assert LatencyHistogram.index(value) == value;
+			assert LatencyHistogram.highestValue((int) value) == value;
+		}
+
+		long previous = 31;
+
+		for (int index = 32; index < 960; index++) {
+
+			final long highest = LatencyHistogram.highestValue(index);
+
+			assert highest > previous;
+			assert LatencyHistogram.index(previous + 1) == index;
+			assert LatencyHistogram.index(highest) == index;
+
+			previous = highest;
+
+		}
+
+		assert previous == Long.MAX_VALUE;
+
+	}
+
+	/**
+	 * Tests {@link LatencyHistogram#record(long)} and
+	 * {@link LatencyHistogram#getPercentile(double)}.
+	 */
+	@Test
+	public void percentiles() {
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		assert histogram.getPercentile(50) == 0;
+
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assert histogram.getCount() == 1000;
+		assert histogram.getMaximum() == 1000000;
+		assert histogram.getMean() == 500500;
+
+		final long median = histogram.getPercentile(50);
+		assert median >= 500000 && median <= 500000 * 1.0625;
+		assert histogram.getPercentile(100) == 1000000;
+
+		histogram.reset();
+
+		assert histogram.getCount() == 0;
+		assert histogram.getPercentile(99) == 0;
+
+	}
+
+}
@@ -0,0 +1,182 @@
+package br.com.arsmachina.dao.hibernate.monitor;
+
+import org.easymock.EasyMock;
+import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AnnotationConfiguration;
+import org.hibernate.classic.Session;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import br.com.arsmachina.dao.hibernate.DAOOperation;
+import br.com.arsmachina.dao.hibernate.DummyClass;
+
+/**
+ * Test class for {@link SlowOperationLogger}.
+ * 
+ * @author Thiago H. de Paula Figueiredo
+ */
+public class SlowOperationLoggerTest {
+
+	final static long THRESHOLD = 100;
+
+	final static long MILLIS = 1000000;
+
+	private Logger logger;
+
+	private ClassMetadata classMetadata;
+
+	private SessionFactory sessionFactory;
+
+	@SuppressWarnings("unused")
+	@BeforeClass
+	private void beforeClass() {
+		AnnotationConfiguration configuration = new AnnotationConfiguration();
+		configuration.configure();
+		sessionFactory = configuration.buildSessionFactory();
+	}
+
+	@SuppressWarnings("unused")
+	@AfterClass
+	private void afterClass() {
+		sessionFactory.close();
+	}
+
+	@SuppressWarnings("unused")
+	@BeforeMethod
+	private void setUp() {
+
+		logger = EasyMock.createMock(Logger.class);
+		classMetadata = EasyMock.createMock(ClassMetadata.class);
+		EasyMock.expect(classMetadata.getEntityName()).andReturn("Dummy").anyTimes();
+		EasyMock.expect(classMetadata.getMappedClass(EntityMode.POJO)).andReturn(String.class)
+				.anyTimes();
+
+	}
+
+	/**
+	 * Tests that operations faster than the threshold are not logged.
+	 */
+	@Test
+	public void underThreshold() {
+
+		EasyMock.replay(logger, classMetadata);
+
+		final SlowOperationLogger slowOperationLogger =
+			new SlowOperationLogger(THRESHOLD, 1, logger);
+		slowOperationLogger.operationFinished(classMetadata, DAOOperation.FIND_ALL,
+				(THRESHOLD - 1) * MILLIS, 10, null, null, null);
+
+		EasyMock.verify(logger, classMetadata);
+
+	}
+
+	/**
+	 * Tests that operations slower than the threshold are logged with their arguments.
+	 */
+	@Test
+	public void overThreshold() {
+
+		EasyMock.expect(logger.isWarnEnabled()).andReturn(true);
+		logger.warn(EasyMock.and(EasyMock.contains("Dummy.FIND_BY_ID took 150 ms, 1 rows"),
+				EasyMock.contains("arguments: 42")));
+		EasyMock.replay(logger, classMetadata);
+
+		final SlowOperationLogger slowOperationLogger =
+			new SlowOperationLogger(THRESHOLD, 1, logger);
+		slowOperationLogger.operationFinished(classMetadata, DAOOperation.FIND_BY_ID,
+				150 * MILLIS, 1, null, null, new Object[] { 42 });
+
+		EasyMock.verify(logger, classMetadata);
+
+	}
+
+	/**
+	 * Tests that the rate limit suppresses repeated messages and that the next message reports
+	 * how many were not logged.
+	 */
+	@Test
+	public void rateLimit() throws InterruptedException {
+
+		EasyMock.expect(logger.isWarnEnabled()).andReturn(true).times(4);
+		logger.warn(EasyMock.contains("Dummy.FIND_ALL took 200 ms"));
+		logger.warn(EasyMock.contains("(2 slow operations not logged)"));
+		EasyMock.replay(logger, classMetadata);
+
+		final SlowOperationLogger slowOperationLogger =
+			new SlowOperationLogger(THRESHOLD, 1, logger);
+
+		for (int i = 0; i < 3; i++) {
+			slowOperationLogger.operationFinished(classMetadata, DAOOperation.FIND_ALL,
+					200 * MILLIS, 10, null, null, null);
+		}
+
+		Thread.sleep(1100);
+
+		slowOperationLogger.operationFinished(classMetadata, DAOOperation.FIND_ALL,
+				200 * MILLIS, 10, null, null, null);
+
+		EasyMock.verify(logger, classMetadata);
+
+	}
+
+	/**
+	 * Tests that the SQL generated for a {@link Criteria} is logged.
+	 */
+	@Test
+	public void criteriaSQL() {
+
+		final Session session = sessionFactory.openSession();
+
+		try {
+
+			final Criteria criteria = session.createCriteria(DummyClass.class);
+			criteria.add(Restrictions.eq("string", "slow"));
+
+			EasyMock.expect(logger.isWarnEnabled()).andReturn(true);
+			logger.warn(EasyMock.and(EasyMock.contains("\n  query: select "),
+					EasyMock.contains("from DummyClass")));
+			EasyMock.replay(logger);
+
+			final SlowOperationLogger slowOperationLogger =
+				new SlowOperationLogger(THRESHOLD, 1, logger);
+			slowOperationLogger.operationFinished(sessionFactory.getClassMetadata(DummyClass.class),
+					DAOOperation.FIND_ALL, 200 * MILLIS, 0, null, criteria, null);
+
+			EasyMock.verify(logger);
+
+		}
+		finally {
+			session.close();
+		}
+
+	}
+
+	/**
+	 * Tests that the SQL translated from an HQL query is logged.
+	 */
+	@Test
+	public void hqlSQL() {
+
+		EasyMock.expect(logger.isWarnEnabled()).andReturn(true);
+		logger.warn(EasyMock.and(EasyMock.contains("\n  query: select "),
+				EasyMock.contains("from DummyClass")));
+		EasyMock.replay(logger);
+
+		final SlowOperationLogger slowOperationLogger =
+			new SlowOperationLogger(THRESHOLD, 1, logger);
+		slowOperationLogger.operationFinished(sessionFactory.getClassMetadata(DummyClass.class),
+				DAOOperation.FIND_ALL, 200 * MILLIS, 0, null,
+				"from DummyClass where string = 'slow'", null);
+
+		EasyMock.verify(logger);
+
+	}
+
+}